@@ -0,0 +1,68 @@
+package com.videoplat.admin.controller;
+
+import com.videoplat.admin.dto.JobLeaseDto;
+import com.videoplat.admin.dto.JobNodeDto;
+import com.videoplat.admin.dto.JobRunDto;
+import com.videoplat.admin.service.AdminJobService;
+import com.videoplat.common.dto.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 管理员定时任务控制器
+ *
+ * 提供定时任务分片租约、调度节点和执行记录的查询功能
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/admin/jobs")
+@RequiredArgsConstructor
+@Tag(name = "管理员定时任务", description = "定时任务调度查询相关接口")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminJobController {
+
+    private final AdminJobService jobService;
+
+    /**
+     * 获取分片租约
+     */
+    @GetMapping("/leases")
+    @Operation(summary = "获取分片租约", description = "查询各定时任务分片当前的持有节点和租约到期时间")
+    public ApiResponse<List<JobLeaseDto>> getLeases() {
+        return ApiResponse.success(jobService.getLeases());
+    }
+
+    /**
+     * 获取调度节点
+     */
+    @GetMapping("/nodes")
+    @Operation(summary = "获取调度节点", description = "查询参与分片调度的节点及其心跳")
+    public ApiResponse<List<JobNodeDto>> getNodes() {
+        return ApiResponse.success(jobService.getNodes());
+    }
+
+    /**
+     * 获取执行记录（分页）
+     */
+    @GetMapping("/runs")
+    @Operation(summary = "获取执行记录", description = "分页查询定时任务分片的执行节点、耗时和结果")
+    public ApiResponse<Page<JobRunDto>> getRuns(
+            @Parameter(description = "任务名（可选）") @RequestParam(required = false) String jobName,
+            @Parameter(description = "页码（从0开始）") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "每页大小") @RequestParam(defaultValue = "20") int size) {
+
+        log.info("管理员查询定时任务执行记录，jobName={}, page={}, size={}", jobName, page, size);
+        return ApiResponse.success(jobService.getRuns(jobName, page, size));
+    }
+}
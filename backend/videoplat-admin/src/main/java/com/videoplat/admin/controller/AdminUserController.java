@@ -55,10 +55,12 @@ public class AdminUserController {
      * 获取在线用户列表
      */
     @GetMapping("/online")
-    @Operation(summary = "获取在线用户", description = "查询当前所有在线用户")
-    public ApiResponse<List<OnlineUserDto>> getOnlineUsers() {
-        log.info("管理员查询在线用户");
-        List<OnlineUserDto> onlineUsers = adminUserService.getOnlineUsers();
+    @Operation(summary = "获取在线用户", description = "分页查询当前在线用户，按最近心跳时间倒序")
+    public ApiResponse<List<OnlineUserDto>> getOnlineUsers(
+            @Parameter(description = "页码（从0开始）") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "每页大小") @RequestParam(defaultValue = "100") int size) {
+        log.info("管理员查询在线用户，page={}, size={}", page, size);
+        List<OnlineUserDto> onlineUsers = adminUserService.getOnlineUsers(page, size);
         return ApiResponse.success(onlineUsers);
     }
 
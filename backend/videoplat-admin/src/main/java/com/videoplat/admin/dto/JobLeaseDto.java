@@ -0,0 +1,45 @@
+package com.videoplat.admin.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 定时任务分片租约 DTO
+ *
+ * 用于管理后台展示各任务分片当前由哪个节点持有
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobLeaseDto {
+
+    /**
+     * 任务名
+     */
+    private String jobName;
+
+    /**
+     * 分片序号
+     */
+    private Integer shard;
+
+    /**
+     * 持有节点 ID
+     */
+    private String owner;
+
+    /**
+     * 租约到期时间
+     */
+    private LocalDateTime leaseUntil;
+
+    /**
+     * 租约是否有效（未过期）
+     */
+    private Boolean active;
+}
@@ -0,0 +1,40 @@
+package com.videoplat.admin.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 定时任务节点 DTO
+ *
+ * 用于管理后台展示参与分片调度的节点
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobNodeDto {
+
+    /**
+     * 节点 ID
+     */
+    private String nodeId;
+
+    /**
+     * 首次心跳时间
+     */
+    private LocalDateTime startedAt;
+
+    /**
+     * 最后一次心跳时间
+     */
+    private LocalDateTime heartbeatAt;
+
+    /**
+     * 是否存活（最后一次心跳在租约有效期内）
+     */
+    private Boolean alive;
+}
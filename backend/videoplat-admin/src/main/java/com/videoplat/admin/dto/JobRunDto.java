@@ -0,0 +1,60 @@
+package com.videoplat.admin.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 定时任务执行记录 DTO
+ *
+ * 用于管理后台展示哪个节点执行了哪个任务分片及耗时
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobRunDto {
+
+    /**
+     * 记录 ID
+     */
+    private Long id;
+
+    /**
+     * 任务名
+     */
+    private String jobName;
+
+    /**
+     * 分片序号
+     */
+    private Integer shard;
+
+    /**
+     * 执行节点 ID
+     */
+    private String nodeId;
+
+    /**
+     * 开始时间
+     */
+    private LocalDateTime startedAt;
+
+    /**
+     * 耗时（毫秒）
+     */
+    private Long durationMs;
+
+    /**
+     * 是否成功
+     */
+    private Boolean success;
+
+    /**
+     * 执行结果摘要或错误信息
+     */
+    private String detail;
+}
@@ -0,0 +1,111 @@
+package com.videoplat.admin.service;
+
+import com.videoplat.admin.dto.JobLeaseDto;
+import com.videoplat.admin.dto.JobNodeDto;
+import com.videoplat.admin.dto.JobRunDto;
+import com.videoplat.domain.entity.JobRun;
+import com.videoplat.domain.repository.JobLeaseRepository;
+import com.videoplat.domain.repository.JobNodeRepository;
+import com.videoplat.domain.repository.JobRunRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 管理员定时任务服务
+ *
+ * 提供定时任务分片租约、调度节点和执行记录的查询功能
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AdminJobService {
+
+    private final JobLeaseRepository leaseRepository;
+    private final JobNodeRepository nodeRepository;
+    private final JobRunRepository runRepository;
+
+    // 与调度节点的租约有效期一致，超过该时间没有心跳的节点视为离线
+    @Value("${app.jobs.lease-ttl:PT30S}")
+    private Duration leaseTtl;
+
+    /**
+     * 获取全部分片租约
+     *
+     * @return 按任务名和分片序号排序的租约列表
+     */
+    @Transactional(readOnly = true)
+    public List<JobLeaseDto> getLeases() {
+        LocalDateTime now = LocalDateTime.now();
+        return leaseRepository.findAllByOrderByJobNameAscShardAsc().stream()
+                .map(lease -> JobLeaseDto.builder()
+                        .jobName(lease.getJobName())
+                        .shard(lease.getShard())
+                        .owner(lease.getOwner())
+                        .leaseUntil(lease.getLeaseUntil())
+                        .active(lease.getLeaseUntil().isAfter(now))
+                        .build())
+                .toList();
+    }
+
+    /**
+     * 获取调度节点
+     *
+     * @return 按首次心跳时间排序的节点列表
+     */
+    @Transactional(readOnly = true)
+    public List<JobNodeDto> getNodes() {
+        LocalDateTime aliveSince = LocalDateTime.now().minus(leaseTtl);
+        return nodeRepository.findAllByOrderByStartedAtAsc().stream()
+                .map(node -> JobNodeDto.builder()
+                        .nodeId(node.getNodeId())
+                        .startedAt(node.getStartedAt())
+                        .heartbeatAt(node.getHeartbeatAt())
+                        .alive(!node.getHeartbeatAt().isBefore(aliveSince))
+                        .build())
+                .toList();
+    }
+
+    /**
+     * 获取执行记录（分页，按开始时间倒序）
+     *
+     * @param jobName 任务名（可选）
+     * @param page 页码（从0开始）
+     * @param size 每页大小
+     * @return 执行记录分页结果
+     */
+    @Transactional(readOnly = true)
+    public Page<JobRunDto> getRuns(String jobName, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "startedAt"));
+        Page<JobRun> runPage = jobName == null || jobName.isBlank()
+                ? runRepository.findAll(pageable)
+                : runRepository.findByJobName(jobName, pageable);
+        return runPage.map(this::convertToJobRunDto);
+    }
+
+    /**
+     * 将执行记录实体转换为 DTO
+     */
+    private JobRunDto convertToJobRunDto(JobRun run) {
+        return JobRunDto.builder()
+                .id(run.getId())
+                .jobName(run.getJobName())
+                .shard(run.getShard())
+                .nodeId(run.getNodeId())
+                .startedAt(run.getStartedAt())
+                .durationMs(run.getDurationMs())
+                .success(run.getSuccess())
+                .detail(run.getDetail())
+                .build();
+    }
+}
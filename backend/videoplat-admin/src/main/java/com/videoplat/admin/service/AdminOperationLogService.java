@@ -1,13 +1,13 @@
 package com.videoplat.admin.service;
 
 import com.videoplat.admin.dto.OperationLogDto;
+import com.videoplat.domain.cache.UserProfile;
+import com.videoplat.domain.cache.UserProfileCache;
 import com.videoplat.domain.entity.AdminOperationLog;
 import com.videoplat.domain.entity.Room;
-import com.videoplat.domain.entity.User;
 import com.videoplat.domain.enums.AdminOperationType;
 import com.videoplat.domain.repository.AdminOperationLogRepository;
 import com.videoplat.domain.repository.RoomRepository;
-import com.videoplat.domain.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -29,7 +29,7 @@ import java.util.Optional;
 public class AdminOperationLogService {
 
     private final AdminOperationLogRepository operationLogRepository;
-    private final UserRepository userRepository;
+    private final UserProfileCache userProfileCache;
     private final RoomRepository roomRepository;
 
     /**
@@ -94,7 +94,7 @@ public class AdminOperationLogService {
 
         // 获取目标用户名
         if (log.getTargetUserId() != null) {
-            Optional<User> targetUser = userRepository.findById(log.getTargetUserId());
+            Optional<UserProfile> targetUser = userProfileCache.get(log.getTargetUserId());
             targetUser.ifPresent(user -> dto.setTargetUsername(user.getUsername()));
         }
 
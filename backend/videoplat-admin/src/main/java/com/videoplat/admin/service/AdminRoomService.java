@@ -1,13 +1,19 @@
 package com.videoplat.admin.service;
 
 import com.videoplat.admin.dto.RoomStatusDto;
+import com.videoplat.domain.cache.UserProfile;
+import com.videoplat.domain.cache.UserProfileCache;
 import com.videoplat.domain.entity.Room;
 import com.videoplat.domain.entity.RoomParticipant;
-import com.videoplat.domain.entity.User;
 import com.videoplat.domain.enums.RoomStatus;
 import com.videoplat.domain.repository.RoomParticipantRepository;
 import com.videoplat.domain.repository.RoomRepository;
-import com.videoplat.domain.repository.UserRepository;
+import com.videoplat.meeting.dto.RoomCleanupReport;
+import com.videoplat.meeting.service.AfterCommit;
+import com.videoplat.meeting.service.RoomCache;
+import com.videoplat.meeting.service.RoomCleanupService;
+import com.videoplat.meeting.service.RoomOccupancyStore;
+import com.videoplat.meeting.websocket.RoomEventRelay;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -20,6 +26,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -34,8 +41,12 @@ import java.util.stream.Collectors;
 public class AdminRoomService {
 
     private final RoomRepository roomRepository;
+    private final RoomCache roomCache;
+    private final RoomCleanupService roomCleanupService;
     private final RoomParticipantRepository participantRepository;
-    private final UserRepository userRepository;
+    private final UserProfileCache userProfileCache;
+    private final RoomEventRelay roomEventRelay;
+    private final RoomOccupancyStore occupancyStore;
 
     /**
      * 获取所有会议室（分页）
@@ -55,14 +66,15 @@ public class AdminRoomService {
                 .distinct()
                 .collect(Collectors.toList());
 
-        List<User> creators = creatorIds.isEmpty() ? List.of() : userRepository.findAllById(creatorIds);
+        Map<Long, UserProfile> creators = userProfileCache.getAll(creatorIds);
 
         // 批量查询参与者数量
         List<Long> roomIds = roomPage.getContent().stream()
                 .map(Room::getId)
                 .collect(Collectors.toList());
+        Map<Long, Long> participantCounts = occupancyStore.counts(roomIds);
 
-        return roomPage.map(room -> convertToRoomStatusDtoSimple(room, creators));
+        return roomPage.map(room -> convertToRoomStatusDtoSimple(room, creators, participantCounts));
     }
 
     /**
@@ -87,7 +99,7 @@ public class AdminRoomService {
      */
     @Transactional(readOnly = true)
     public RoomStatusDto getRoomDetail(String roomId) {
-        Room room = roomRepository.findByRoomId(roomId)
+        Room room = roomCache.findByRoomId(roomId)
                 .orElseThrow(() -> new RuntimeException("会议室不存在"));
 
         return convertToRoomStatusDto(room);
@@ -120,6 +132,12 @@ public class AdminRoomService {
         participants.forEach(p -> p.setLeftAt(now));
         participantRepository.saveAll(participants);
 
+        // 事务提交后再通知各节点关闭消息频道
+        AfterCommit.run(() -> {
+            occupancyStore.clear(room.getId());
+            roomEventRelay.closeRoom(roomId);
+        });
+
         log.info("会议室 {} 被强制关闭，原因: {}", roomId, reason);
     }
 
@@ -129,46 +147,25 @@ public class AdminRoomService {
      * @param reason 关闭原因
      * @return 关闭的会议室数量
      */
-    @Transactional
     public int forceCloseAllRooms(String reason) {
-        List<Room> activeRooms = roomRepository.findByStatus(RoomStatus.ACTIVE);
-
-        if (activeRooms.isEmpty()) {
-            return 0;
-        }
+        RoomCleanupReport report = roomCleanupService.endAllRooms("force");
 
-        LocalDateTime now = LocalDateTime.now();
-
-        // 关闭所有进行中的会议室
-        for (Room room : activeRooms) {
-            room.setStatus(RoomStatus.ENDED);
-            room.setEndedAt(now);
-
-            // 所有参与者离开
-            List<RoomParticipant> participants = participantRepository
-                    .findByRoomIdAndLeftAtIsNull(room.getId());
-            participants.forEach(p -> p.setLeftAt(now));
-            participantRepository.saveAll(participants);
-        }
+        log.info("强制关闭所有会议室，共 {} 个，移出 {} 条参与记录，耗时 {} ms，原因: {}",
+                report.getRoomsEnded(), report.getParticipantsReleased(), report.getDurationMillis(), reason);
 
-        roomRepository.saveAll(activeRooms);
-
-        log.info("强制关闭所有会议室，共 {} 个，原因: {}", activeRooms.size(), reason);
-
-        return activeRooms.size();
+        return report.getRoomsEnded();
     }
 
     /**
      * 将会议室实体转换为会议室状态 DTO（简化版，用于列表页面）
      */
-    private RoomStatusDto convertToRoomStatusDtoSimple(Room room, List<User> creators) {
-        // 从缓存的创建者列表中查找
-        Optional<User> creator = creators.stream()
-                .filter(u -> u.getId().equals(room.getCreatorId()))
-                .findFirst();
+    private RoomStatusDto convertToRoomStatusDtoSimple(Room room, Map<Long, UserProfile> creators,
+                                                       Map<Long, Long> participantCounts) {
+        // 从批量加载的创建者资料中查找
+        Optional<UserProfile> creator = Optional.ofNullable(creators.get(room.getCreatorId()));
 
-        // 获取当前参与者数量
-        long currentParticipants = participantRepository.countByRoomIdAndLeftAtIsNull(room.getId());
+        // 从批量读取的在场人数中查找
+        long currentParticipants = participantCounts.getOrDefault(room.getId(), 0L);
 
         // 计算会议持续时长
         Long durationMinutes = null;
@@ -211,10 +208,10 @@ public class AdminRoomService {
      */
     private RoomStatusDto convertToRoomStatusDto(Room room) {
         // 获取创建者信息
-        Optional<User> creator = userRepository.findById(room.getCreatorId());
+        Optional<UserProfile> creator = userProfileCache.get(room.getCreatorId());
 
         // 获取当前参与者数量
-        long currentParticipants = participantRepository.countByRoomIdAndLeftAtIsNull(room.getId());
+        long currentParticipants = occupancyStore.count(room.getId());
 
         // 计算会议持续时长
         Long durationMinutes = null;
@@ -252,7 +249,7 @@ public class AdminRoomService {
 
         List<RoomStatusDto.ParticipantInfo> participantInfos = participants.stream()
                 .map(participant -> {
-                    Optional<User> user = userRepository.findById(participant.getUserId());
+                    Optional<UserProfile> user = userProfileCache.get(participant.getUserId());
                     return user.map(u -> RoomStatusDto.ParticipantInfo.builder()
                             .userId(u.getId())
                             .username(u.getUsername())
@@ -2,6 +2,7 @@ package com.videoplat.admin.service;
 
 import com.videoplat.admin.dto.OnlineUserDto;
 import com.videoplat.admin.dto.UserStatusDto;
+import com.videoplat.domain.cache.UserProfileCache;
 import com.videoplat.domain.entity.Room;
 import com.videoplat.domain.entity.RoomParticipant;
 import com.videoplat.domain.entity.User;
@@ -9,7 +10,10 @@ import com.videoplat.domain.enums.RoomStatus;
 import com.videoplat.domain.repository.RoomParticipantRepository;
 import com.videoplat.domain.repository.RoomRepository;
 import com.videoplat.domain.repository.UserRepository;
+import com.videoplat.meeting.service.AfterCommit;
 import com.videoplat.meeting.service.OnlineStatusService;
+import com.videoplat.meeting.service.RoomOccupancyStore;
+import com.videoplat.meeting.websocket.RoomEventRelay;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -22,7 +26,6 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -36,9 +39,12 @@ import java.util.stream.Collectors;
 public class AdminUserService {
 
     private final UserRepository userRepository;
+    private final UserProfileCache userProfileCache;
     private final RoomRepository roomRepository;
     private final RoomParticipantRepository participantRepository;
     private final OnlineStatusService onlineStatusService;
+    private final RoomOccupancyStore occupancyStore;
+    private final RoomEventRelay roomEventRelay;
 
     /**
      * 获取所有用户（分页）
@@ -56,13 +62,15 @@ public class AdminUserService {
     }
 
     /**
-     * 获取在线用户列表
+     * 分页获取在线用户列表，按最近心跳时间倒序
      *
+     * @param page 页码（从 0 开始）
+     * @param size 每页大小
      * @return 在线用户信息列表
      */
     @Transactional(readOnly = true)
-    public List<OnlineUserDto> getOnlineUsers() {
-        Set<String> onlineUserIds = onlineStatusService.getOnlineUsers();
+    public List<OnlineUserDto> getOnlineUsers(int page, int size) {
+        List<String> onlineUserIds = onlineStatusService.getOnlineUsers((long) page * size, size);
 
         if (onlineUserIds == null || onlineUserIds.isEmpty()) {
             return new ArrayList<>();
@@ -101,8 +109,9 @@ public class AdminUserService {
      */
     @Transactional
     public void forceUserOffline(Long userId, String reason) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("用户不存在"));
+        if (userProfileCache.get(userId).isEmpty()) {
+            throw new RuntimeException("用户不存在");
+        }
 
         // 检查用户是否在会议中
         List<RoomParticipant> activeParticipants = participantRepository
@@ -114,6 +123,13 @@ public class AdminUserService {
             participant.setLeftAt(java.time.LocalDateTime.now());
             participantRepository.save(participant);
 
+            // 事务提交后再通知各节点将用户移出消息频道
+            Optional<Room> room = roomRepository.findById(participant.getRoomId());
+            AfterCommit.run(() -> {
+                occupancyStore.remove(participant.getRoomId(), userId);
+                room.ifPresent(r -> roomEventRelay.leaveRoom(r.getRoomId(), userId));
+            });
+
             log.info("用户 {} 被强制离开会议室，原因: {}", userId, reason);
         }
 
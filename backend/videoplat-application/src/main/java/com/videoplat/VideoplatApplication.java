@@ -15,6 +15,7 @@ import org.springframework.scheduling.annotation.EnableScheduling;
         "com.videoplat.meeting",        // 会议模块
         "com.videoplat.admin",          // 管理模块
         "com.videoplat.videoreview",    // 视频回放模块
+        "com.videoplat.domain.cache",   // 领域缓存
         "com.videoplat.config",         // 配置类
         "com.videoplat.exception"       // 异常处理
 })
@@ -1,6 +1,8 @@
 package com.videoplat.exception;
 
 import com.videoplat.common.dto.ApiResponse;
+import com.videoplat.common.exception.RateLimitedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -41,6 +43,17 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error("请求的资源不存在"));
     }
 
+    /**
+     * 处理请求过多异常（429）
+     */
+    @ExceptionHandler(RateLimitedException.class)
+    public ResponseEntity<ApiResponse<Void>> handleRateLimitedException(RateLimitedException ex) {
+        return ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+
     /**
      * 处理业务异常
      */
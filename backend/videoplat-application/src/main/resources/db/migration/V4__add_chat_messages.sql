@@ -0,0 +1,28 @@
+-- =====================================================
+-- 聊天消息归档表 (chat_messages)
+-- Redis 只保留最近的聊天消息，完整聊天记录异步归档到此表
+-- =====================================================
+CREATE TABLE IF NOT EXISTS chat_messages (
+    id BIGSERIAL PRIMARY KEY,
+    room_id VARCHAR(50) NOT NULL,
+    seq BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    username VARCHAR(100),
+    content TEXT NOT NULL,
+    type VARCHAR(20) NOT NULL DEFAULT 'text',
+    sent_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_chat_messages_room_seq UNIQUE (room_id, seq)
+);
+
+-- 聊天消息表注释
+COMMENT ON TABLE chat_messages IS '聊天消息归档表';
+COMMENT ON COLUMN chat_messages.id IS '主键';
+COMMENT ON COLUMN chat_messages.room_id IS '会议室唯一标识符';
+COMMENT ON COLUMN chat_messages.seq IS '会议室内单调递增的消息序号';
+COMMENT ON COLUMN chat_messages.user_id IS '发送者用户ID，系统消息为0';
+COMMENT ON COLUMN chat_messages.username IS '发送者用户名';
+COMMENT ON COLUMN chat_messages.content IS '消息内容';
+COMMENT ON COLUMN chat_messages.type IS '消息类型：text-文本, system-系统消息';
+COMMENT ON COLUMN chat_messages.sent_at IS '发送时间';
+
+-- 唯一约束 (room_id, seq) 同时作为按会议室分页查询的索引
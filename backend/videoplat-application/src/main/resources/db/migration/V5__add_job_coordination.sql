@@ -0,0 +1,59 @@
+-- =====================================================
+-- 定时任务分片租约表 (job_leases)
+-- 每个任务分片同一时间只由持有租约的节点执行，节点宕机后租约过期由其他节点接管
+-- =====================================================
+CREATE TABLE IF NOT EXISTS job_leases (
+    id BIGSERIAL PRIMARY KEY,
+    job_name VARCHAR(100) NOT NULL,
+    shard INTEGER NOT NULL,
+    owner VARCHAR(100) NOT NULL,
+    lease_until TIMESTAMP NOT NULL,
+    CONSTRAINT uk_job_leases_job_shard UNIQUE (job_name, shard)
+);
+
+COMMENT ON TABLE job_leases IS '定时任务分片租约表';
+COMMENT ON COLUMN job_leases.job_name IS '任务名';
+COMMENT ON COLUMN job_leases.shard IS '分片序号，从0开始';
+COMMENT ON COLUMN job_leases.owner IS '持有租约的节点ID';
+COMMENT ON COLUMN job_leases.lease_until IS '租约到期时间';
+
+-- =====================================================
+-- 定时任务节点表 (job_nodes)
+-- 参与分片调度的节点定期写入心跳，存活节点数决定每个节点持有的分片数
+-- =====================================================
+CREATE TABLE IF NOT EXISTS job_nodes (
+    node_id VARCHAR(100) PRIMARY KEY,
+    started_at TIMESTAMP NOT NULL,
+    heartbeat_at TIMESTAMP NOT NULL
+);
+
+COMMENT ON TABLE job_nodes IS '定时任务节点表';
+COMMENT ON COLUMN job_nodes.node_id IS '节点ID';
+COMMENT ON COLUMN job_nodes.started_at IS '首次心跳时间';
+COMMENT ON COLUMN job_nodes.heartbeat_at IS '最后一次心跳时间';
+
+-- =====================================================
+-- 定时任务执行记录表 (job_runs)
+-- 记录每次分片执行的节点、耗时和结果
+-- =====================================================
+CREATE TABLE IF NOT EXISTS job_runs (
+    id BIGSERIAL PRIMARY KEY,
+    job_name VARCHAR(100) NOT NULL,
+    shard INTEGER NOT NULL,
+    node_id VARCHAR(100) NOT NULL,
+    started_at TIMESTAMP NOT NULL,
+    duration_ms BIGINT NOT NULL,
+    success BOOLEAN NOT NULL,
+    detail TEXT
+);
+
+CREATE INDEX IF NOT EXISTS idx_job_runs_started_at ON job_runs(started_at);
+
+COMMENT ON TABLE job_runs IS '定时任务执行记录表';
+COMMENT ON COLUMN job_runs.job_name IS '任务名';
+COMMENT ON COLUMN job_runs.shard IS '分片序号';
+COMMENT ON COLUMN job_runs.node_id IS '执行节点ID';
+COMMENT ON COLUMN job_runs.started_at IS '开始时间';
+COMMENT ON COLUMN job_runs.duration_ms IS '耗时（毫秒）';
+COMMENT ON COLUMN job_runs.success IS '是否成功';
+COMMENT ON COLUMN job_runs.detail IS '执行结果摘要或错误信息';
@@ -0,0 +1,12 @@
+-- =====================================================
+-- 号段分配表 (id_blocks)
+-- 节点按号段取走编号在内存中使用，用于生成会议室 ID 等无需判重的唯一编号
+-- =====================================================
+CREATE TABLE IF NOT EXISTS id_blocks (
+    name VARCHAR(50) PRIMARY KEY,
+    next_value BIGINT NOT NULL
+);
+
+COMMENT ON TABLE id_blocks IS '号段分配表';
+COMMENT ON COLUMN id_blocks.name IS '编号名称，如 room_id';
+COMMENT ON COLUMN id_blocks.next_value IS '下一个未分配的号段起点';
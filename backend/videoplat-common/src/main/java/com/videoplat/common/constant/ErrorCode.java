@@ -9,6 +9,7 @@ public class ErrorCode {
     public static final String INTERNAL_ERROR = "INTERNAL_ERROR";
     public static final String INVALID_PARAMETER = "INVALID_PARAMETER";
     public static final String RESOURCE_NOT_FOUND = "RESOURCE_NOT_FOUND";
+    public static final String RATE_LIMITED = "RATE_LIMITED";
 
     // 认证授权错误
     public static final String UNAUTHORIZED = "UNAUTHORIZED";
@@ -0,0 +1,21 @@
+package com.videoplat.common.exception;
+
+import com.videoplat.common.constant.ErrorCode;
+
+/**
+ * 请求过多异常（对应 HTTP 429）
+ */
+public class RateLimitedException extends BusinessException {
+
+    // 建议客户端重试前等待的秒数
+    private final long retryAfterSeconds;
+
+    public RateLimitedException(String message, long retryAfterSeconds) {
+        super(ErrorCode.RATE_LIMITED, message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
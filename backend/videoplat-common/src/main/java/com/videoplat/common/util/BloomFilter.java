@@ -0,0 +1,90 @@
+package com.videoplat.common.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 字符串布隆过滤器（线程安全，只能添加不能删除）
+ *
+ * mightContain 返回 false 时元素一定不存在，返回 true 时可能存在（误判率由容量和目标误判率决定）。
+ * 位数组使用 AtomicLongArray，并发添加不会丢失位；哈希采用 64 位 FNV-1a 拆分出两个哈希值做双重散列
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * 创建布隆过滤器
+     *
+     * @param expectedInsertions 预计元素数量
+     * @param falsePositiveRate 目标误判率，例如 0.001
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("预计元素数量必须大于 0");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("误判率必须在 0 和 1 之间");
+        }
+        // m = -n * ln(p) / (ln 2)^2，k = m / n * ln 2
+        long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE, (m + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * 添加元素
+     */
+    public void put(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = Math.floorMod(h1 + (long) i * h2, bitCount);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    /**
+     * 判断元素是否可能存在
+     *
+     * @return false 表示一定不存在
+     */
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = Math.floorMod(h1 + (long) i * h2, bitCount);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        // FNV 低位扩散较弱，再做一次混合
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
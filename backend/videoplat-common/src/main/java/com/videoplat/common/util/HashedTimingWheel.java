@@ -0,0 +1,210 @@
+package com.videoplat.common.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 哈希时间轮
+ *
+ * 适合大量、可取消、精度要求不高的延时任务（在线状态过期、断线宽限期等）。
+ * 时间轮有固定数量的槽位，每个刻度推进一格；任务按到期刻度落入对应槽位，
+ * 超过一圈的任务记录剩余圈数。新增和取消只做入队或置位，都是 O(1)，
+ * 到期任务在唯一的工作线程中执行，任务本身应当很快完成，耗时操作需要转交给其他线程
+ */
+public class HashedTimingWheel {
+
+    private final long tickNanos;
+    private final int mask;
+    private final List<LinkedList<Timeout>> wheel;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final Thread worker;
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    private volatile boolean running = true;
+    private volatile long startTime;
+
+    // 工作线程已处理到的刻度（只由工作线程修改）
+    private long tick;
+
+    /**
+     * 创建时间轮，槽位数向上取整为 2 的幂
+     *
+     * @param name 工作线程名称
+     * @param tickDuration 刻度长度
+     * @param unit 刻度单位
+     * @param wheelSize 槽位数
+     */
+    public HashedTimingWheel(String name, long tickDuration, TimeUnit unit, int wheelSize) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("刻度长度必须大于 0");
+        }
+        if (wheelSize < 1) {
+            throw new IllegalArgumentException("槽位数必须大于 0");
+        }
+        int size = wheelSize == 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.mask = size - 1;
+        this.wheel = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            wheel.add(new LinkedList<>());
+        }
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+    }
+
+    /**
+     * 启动工作线程（重复调用无效）
+     */
+    public void start() {
+        if (started.compareAndSet(false, true)) {
+            startTime = System.nanoTime();
+            worker.start();
+        }
+    }
+
+    /**
+     * 停止工作线程，未到期的任务不再执行
+     */
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    /**
+     * 添加延时任务
+     *
+     * @param task 到期后执行的任务
+     * @param delay 延迟时间
+     * @param unit 时间单位
+     * @return 任务句柄，可用于取消
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        start();
+        Timeout timeout = new Timeout(task, System.nanoTime() + Math.max(0, unit.toNanos(delay)));
+        pending.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * 等待中的任务数（近似值）
+     */
+    public int pendingCount() {
+        int count = pending.size();
+        synchronized (wheel) {
+            for (LinkedList<Timeout> bucket : wheel) {
+                count += bucket.size();
+            }
+        }
+        return count;
+    }
+
+    // 工作线程：等待下一个刻度，放入新任务，执行当前槽位中到期的任务
+    private void run() {
+        while (running) {
+            long deadline = startTime + (tick + 1) * tickNanos;
+            long sleepNanos = deadline - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    if (!running) {
+                        return;
+                    }
+                    continue;
+                }
+            }
+
+            List<Timeout> expired = new ArrayList<>();
+            synchronized (wheel) {
+                transferPending();
+                Iterator<Timeout> iterator = wheel.get((int) (tick & mask)).iterator();
+                while (iterator.hasNext()) {
+                    Timeout timeout = iterator.next();
+                    if (timeout.isCancelled()) {
+                        iterator.remove();
+                    } else if (timeout.remainingRounds <= 0) {
+                        iterator.remove();
+                        expired.add(timeout);
+                    } else {
+                        timeout.remainingRounds--;
+                    }
+                }
+            }
+            tick++;
+
+            for (Timeout timeout : expired) {
+                timeout.expire();
+            }
+        }
+    }
+
+    // 将新增任务放入对应槽位，已过期的任务放入当前槽位
+    private void transferPending() {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long ticks = Math.max(tick, (timeout.deadline - startTime) / tickNanos);
+            timeout.remainingRounds = (ticks - tick) / wheel.size();
+            wheel.get((int) (ticks & mask)).add(timeout);
+        }
+    }
+
+    /**
+     * 延时任务句柄
+     */
+    public static class Timeout {
+
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile boolean cancelled;
+
+        // 剩余圈数（只由工作线程修改）
+        private long remainingRounds;
+
+        Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * 取消任务
+         *
+         * @return false 表示任务已经执行或已取消
+         */
+        public boolean cancel() {
+            if (done.compareAndSet(false, true)) {
+                cancelled = true;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * 是否已取消
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        // 执行任务，异常不影响工作线程
+        void expire() {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Exception ignored) {
+                // 任务自身负责记录异常
+            }
+        }
+    }
+}
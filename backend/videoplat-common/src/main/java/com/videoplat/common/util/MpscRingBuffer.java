@@ -0,0 +1,111 @@
+package com.videoplat.common.util;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 有界无锁环形缓冲区（多生产者、单消费者）
+ *
+ * 每个槽位记录一个序号：序号等于写入位置时可写，等于写入位置 + 1 时可读。
+ * 生产者通过 CAS 抢占写入位置，消费者只能有一个线程
+ */
+public class MpscRingBuffer<E> {
+
+    private final int mask;
+    private final Object[] buffer;
+    private final AtomicLongArray sequences;
+
+    // 下一个写入位置（生产者共享）
+    private final AtomicLong tail = new AtomicLong();
+
+    // 下一个读取位置（只由消费者线程修改）
+    private volatile long head;
+
+    /**
+     * 创建环形缓冲区，容量向上取整为 2 的幂
+     */
+    public MpscRingBuffer(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("容量必须大于 1");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.buffer = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 写入元素，缓冲区已满时立即返回 false
+     */
+    public boolean offer(E element) {
+        long pos = tail.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    buffer[index] = element;
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                // 槽位尚未被消费者释放，缓冲区已满
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * 读取一个元素，没有可读元素时返回 null（只能由消费者线程调用）
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long pos = head;
+        int index = (int) (pos & mask);
+        if (sequences.get(index) != pos + 1) {
+            return null;
+        }
+        E element = (E) buffer[index];
+        buffer[index] = null;
+        sequences.set(index, pos + mask + 1);
+        head = pos + 1;
+        return element;
+    }
+
+    /**
+     * 批量读取最多 maxElements 个元素（只能由消费者线程调用）
+     *
+     * @return 读取的元素数
+     */
+    public int drainTo(List<? super E> target, int maxElements) {
+        int count = 0;
+        E element;
+        while (count < maxElements && (element = poll()) != null) {
+            target.add(element);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 当前元素数（近似值）
+     */
+    public int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    /**
+     * 缓冲区容量
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+}
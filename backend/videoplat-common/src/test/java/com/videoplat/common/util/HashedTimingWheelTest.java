@@ -0,0 +1,142 @@
+package com.videoplat.common.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 哈希时间轮测试：任务不早于到期时间执行、取消后不执行、超过一圈的任务按圈数等待
+ */
+class HashedTimingWheelTest {
+
+    private HashedTimingWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        // 10 毫秒一格、8 格，一圈 80 毫秒
+        wheel = new HashedTimingWheel("test-wheel", 10, TimeUnit.MILLISECONDS, 8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        wheel.stop();
+    }
+
+    @Test
+    void taskRunsNoEarlierThanItsDelay() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        AtomicLong firedAt = new AtomicLong();
+        long start = System.nanoTime();
+
+        wheel.schedule(() -> {
+            firedAt.set(System.nanoTime());
+            fired.countDown();
+        }, 50, TimeUnit.MILLISECONDS);
+
+        assertThat(fired.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(firedAt.get() - start)).isGreaterThanOrEqualTo(50);
+    }
+
+    @Test
+    void taskBeyondOneRoundWaitsForRemainingRounds() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        AtomicLong firedAt = new AtomicLong();
+        long start = System.nanoTime();
+
+        // 250 毫秒超过三圈
+        wheel.schedule(() -> {
+            firedAt.set(System.nanoTime());
+            fired.countDown();
+        }, 250, TimeUnit.MILLISECONDS);
+
+        assertThat(fired.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(firedAt.get() - start)).isGreaterThanOrEqualTo(250);
+    }
+
+    @Test
+    void cancelledTaskDoesNotRun() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch later = new CountDownLatch(1);
+
+        HashedTimingWheel.Timeout timeout = wheel.schedule(runs::incrementAndGet, 30, TimeUnit.MILLISECONDS);
+        wheel.schedule(later::countDown, 100, TimeUnit.MILLISECONDS);
+
+        assertThat(timeout.cancel()).isTrue();
+        assertThat(timeout.isCancelled()).isTrue();
+        assertThat(later.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(runs.get()).isZero();
+        // 已取消的任务不能再次取消
+        assertThat(timeout.cancel()).isFalse();
+    }
+
+    @Test
+    void cancelAfterExpiryReturnsFalse() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        HashedTimingWheel.Timeout timeout = wheel.schedule(fired::countDown, 0, TimeUnit.MILLISECONDS);
+
+        assertThat(fired.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(timeout.cancel()).isFalse();
+        assertThat(timeout.isCancelled()).isFalse();
+    }
+
+    @Test
+    void failingTaskDoesNotStopWorker() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        wheel.schedule(() -> {
+            throw new IllegalStateException("boom");
+        }, 10, TimeUnit.MILLISECONDS);
+        wheel.schedule(fired::countDown, 40, TimeUnit.MILLISECONDS);
+
+        assertThat(fired.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void concurrentSchedulesEachFireOnce() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 2_500;
+        Map<Integer, AtomicInteger> runs = new ConcurrentHashMap<>();
+        CountDownLatch fired = new CountDownLatch(producers * perProducer);
+
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    int id = base + i;
+                    wheel.schedule(() -> {
+                        runs.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+                        fired.countDown();
+                    }, ThreadLocalRandom.current().nextInt(200), TimeUnit.MILLISECONDS);
+                }
+            });
+            threads[p].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(fired.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(runs).hasSize(producers * perProducer);
+        assertThat(runs.values()).allMatch(count -> count.get() == 1);
+        assertThat(wheel.pendingCount()).isZero();
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertThatThrownBy(() -> new HashedTimingWheel("bad", 0, TimeUnit.MILLISECONDS, 8))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HashedTimingWheel("bad", 10, TimeUnit.MILLISECONDS, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,95 @@
+package com.videoplat.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 环形缓冲区测试：先进先出、满时拒绝写入、多生产者不丢失也不重复
+ */
+class MpscRingBufferTest {
+
+    @Test
+    void capacityIsRoundedUpToPowerOfTwo() {
+        assertThat(new MpscRingBuffer<Integer>(5).capacity()).isEqualTo(8);
+        assertThat(new MpscRingBuffer<Integer>(8).capacity()).isEqualTo(8);
+        assertThatThrownBy(() -> new MpscRingBuffer<Integer>(1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void offerFailsWhenFullAndSucceedsAfterPoll() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        assertThat(buffer.offer(4)).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+
+        assertThat(buffer.poll()).isEqualTo(0);
+        assertThat(buffer.offer(4)).isTrue();
+
+        List<Integer> drained = new ArrayList<>();
+        assertThat(buffer.drainTo(drained, 10)).isEqualTo(4);
+        assertThat(drained).containsExactly(1, 2, 3, 4);
+        assertThat(buffer.poll()).isNull();
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void concurrentProducersDeliverEveryElementOnceInPerProducerOrder() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 100_000;
+        MpscRingBuffer<long[]> buffer = new MpscRingBuffer<>(1024);
+        CountDownLatch start = new CountDownLatch(1);
+
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            threads[p] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (long i = 0; i < perProducer; i++) {
+                    long[] element = {producer, i};
+                    while (!buffer.offer(element)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            threads[p].start();
+        }
+        start.countDown();
+
+        // 当前线程作为唯一的消费者
+        long[] nextExpected = new long[producers];
+        int received = 0;
+        List<long[]> batch = new ArrayList<>();
+        while (received < producers * perProducer) {
+            batch.clear();
+            if (buffer.drainTo(batch, 256) == 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            for (long[] element : batch) {
+                int producer = (int) element[0];
+                assertThat(element[1]).isEqualTo(nextExpected[producer]);
+                nextExpected[producer]++;
+                received++;
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(nextExpected).containsOnly(perProducer);
+        assertThat(buffer.poll()).isNull();
+    }
+}
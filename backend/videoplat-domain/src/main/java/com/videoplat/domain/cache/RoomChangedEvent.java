@@ -0,0 +1,19 @@
+package com.videoplat.domain.cache;
+
+import lombok.Value;
+
+/**
+ * 会议室变更事件
+ *
+ * 会议室创建、更新或删除的事务提交后由 {@link RoomInvalidationListener} 发布，
+ * 供会议室缓存失效使用
+ */
+@Value
+public class RoomChangedEvent {
+
+    // 会议室 ID（业务 ID）
+    String roomId;
+
+    // 是否为新创建的会议室
+    boolean created;
+}
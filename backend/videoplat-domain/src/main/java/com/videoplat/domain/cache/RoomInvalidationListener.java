@@ -0,0 +1,52 @@
+package com.videoplat.domain.cache;
+
+import com.videoplat.domain.entity.Room;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 会议室实体监听器
+ *
+ * 会议室被创建、更新（结束、强制关闭、清理等状态变化）或删除后发布 {@link RoomChangedEvent}。
+ * 存在事务时在提交后发布，避免其他线程在提交前重新加载旧数据
+ */
+@Component
+public class RoomInvalidationListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    // 延迟注入，避免 JPA 初始化期间创建依赖
+    public RoomInvalidationListener(@Lazy ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    public void onRoomCreated(Room room) {
+        publishAfterCommit(new RoomChangedEvent(room.getRoomId(), true));
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onRoomChanged(Room room) {
+        publishAfterCommit(new RoomChangedEvent(room.getRoomId(), false));
+    }
+
+    private void publishAfterCommit(RoomChangedEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eventPublisher.publishEvent(event);
+                }
+            });
+        } else {
+            eventPublisher.publishEvent(event);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.videoplat.domain.cache;
+
+import lombok.Value;
+
+/**
+ * 用户变更事件
+ *
+ * 用户更新或删除的事务提交后由 {@link UserProfileInvalidationListener} 发布，
+ * 供用户资料缓存失效和跨节点通知使用
+ */
+@Value
+public class UserChangedEvent {
+
+    // 用户 ID
+    Long userId;
+}
@@ -0,0 +1,55 @@
+package com.videoplat.domain.cache;
+
+import com.videoplat.domain.entity.User;
+import com.videoplat.domain.enums.UserRole;
+import com.videoplat.domain.enums.UserType;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * 用户资料快照
+ *
+ * 只包含展示用的不可变字段，由 {@link UserProfileCache} 缓存
+ */
+@Value
+@Builder
+public class UserProfile {
+
+    Long id;
+
+    String username;
+
+    String nickname;
+
+    String avatarUrl;
+
+    UserType userType;
+
+    UserRole role;
+
+    /**
+     * 获取显示名称，优先使用昵称
+     *
+     * @return 显示名称
+     */
+    public String getDisplayName() {
+        return nickname != null ? nickname : username;
+    }
+
+    /**
+     * 从用户实体创建资料快照
+     *
+     * @param user 用户实体
+     * @return 用户资料
+     */
+    public static UserProfile from(User user) {
+        return UserProfile.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .nickname(user.getNickname())
+                .avatarUrl(user.getAvatarUrl())
+                .userType(user.getUserType())
+                .role(user.getRole())
+                .build();
+    }
+}
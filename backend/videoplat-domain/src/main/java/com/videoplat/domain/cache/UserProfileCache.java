@@ -0,0 +1,113 @@
+package com.videoplat.domain.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.videoplat.domain.entity.User;
+import com.videoplat.domain.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 用户资料缓存
+ *
+ * 聊天、会议室和管理模块解析用户昵称时使用，避免每次都查询数据库。
+ * 缓存有容量上限和写入过期时间，用户实体更新或删除的事务提交后（{@link UserChangedEvent}）
+ * 主动失效本地条目；集群模式下由会议模块的 UserProfileCacheRelay 通过 Redis 发布/订阅通知其他节点，
+ * 通知丢失时其他节点最迟在写入过期时间后收敛。
+ * 命中率等指标以 cache.* 名称（cache=userProfile）注册到 Micrometer
+ */
+@Slf4j
+@Component
+public class UserProfileCache {
+
+    private final UserRepository userRepository;
+    private final Cache<Long, UserProfile> cache;
+
+    public UserProfileCache(UserRepository userRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.cache.user-profile.max-size:10000}") long maxSize,
+                            @Value("${app.cache.user-profile.ttl:PT10M}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userProfile");
+    }
+
+    /**
+     * 获取用户资料，未命中时从数据库加载
+     *
+     * @param userId 用户 ID
+     * @return 用户资料，用户不存在时为空
+     */
+    public Optional<UserProfile> get(Long userId) {
+        if (userId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.get(userId,
+                id -> userRepository.findById(id).map(UserProfile::from).orElse(null)));
+    }
+
+    /**
+     * 批量获取用户资料，未命中的部分通过一次查询加载
+     *
+     * @param userIds 用户 ID 集合
+     * @return 用户 ID 到用户资料的映射，不存在的用户不包含在结果中
+     */
+    public Map<Long, UserProfile> getAll(Collection<Long> userIds) {
+        Set<Long> ids = new HashSet<>(userIds);
+        ids.remove(null);
+        if (ids.isEmpty()) {
+            return new HashMap<>();
+        }
+        return new HashMap<>(cache.getAll(ids, missing -> {
+            Map<Long, UserProfile> loaded = new HashMap<>();
+            for (User user : userRepository.findAllById(new ArrayList<>(missing))) {
+                loaded.put(user.getId(), UserProfile.from(user));
+            }
+            return loaded;
+        }));
+    }
+
+    /**
+     * 使指定用户的缓存失效（用户资料变更后调用）
+     *
+     * @param userId 用户 ID
+     */
+    public void invalidate(Long userId) {
+        if (userId != null) {
+            cache.invalidate(userId);
+            log.debug("用户 {} 的资料缓存已失效", userId);
+        }
+    }
+
+    /**
+     * 用户变更事务提交后失效本地条目
+     */
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(event.getUserId());
+    }
+
+    /**
+     * 清空全部缓存
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,43 @@
+package com.videoplat.domain.cache;
+
+import com.videoplat.domain.entity.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 用户实体监听器
+ *
+ * 用户被更新或删除后发布 {@link UserChangedEvent}，由 {@link UserProfileCache} 失效本地条目。
+ * 存在事务时在提交后发布，避免其他线程在提交前重新加载旧数据
+ */
+@Component
+public class UserProfileInvalidationListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    // 延迟注入，避免 JPA 初始化期间创建依赖
+    public UserProfileInvalidationListener(@Lazy ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        UserChangedEvent event = new UserChangedEvent(user.getId());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eventPublisher.publishEvent(event);
+                }
+            });
+        } else {
+            eventPublisher.publishEvent(event);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.videoplat.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 聊天消息归档实体
+ *
+ * Redis 只保留最近的聊天消息，完整记录异步批量写入此表
+ */
+@Entity
+@Table(name = "chat_messages",
+        uniqueConstraints = @UniqueConstraint(name = "uk_chat_messages_room_seq", columnNames = {"room_id", "seq"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // 会议室唯一标识符（对应 rooms.room_id）
+    @Column(name = "room_id", nullable = false, length = 50)
+    private String roomId;
+
+    // 会议室内单调递增的消息序号
+    @Column(nullable = false)
+    private Long seq;
+
+    // 系统消息的发送者为 0
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(length = 100)
+    private String username;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String content;
+
+    @Column(nullable = false, length = 20)
+    private String type;
+
+    @Column(name = "sent_at", nullable = false)
+    private LocalDateTime sentAt;
+}
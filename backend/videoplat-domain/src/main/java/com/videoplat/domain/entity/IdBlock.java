@@ -0,0 +1,30 @@
+package com.videoplat.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 号段分配实体
+ *
+ * 每种编号一行，next_value 为下一个未分配的号段起点；
+ * 节点每次取走一整段编号在内存中使用，分配只需一次数据库往返
+ */
+@Entity
+@Table(name = "id_blocks")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdBlock {
+
+    // 编号名称，如 room_id
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+}
@@ -0,0 +1,44 @@
+package com.videoplat.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 定时任务分片租约实体
+ *
+ * 每个任务分成固定数量的分片，每个分片同一时间只由租约持有节点执行；
+ * 持有节点定期续约，节点宕机后租约过期，由其他节点接管
+ */
+@Entity
+@Table(name = "job_leases",
+        uniqueConstraints = @UniqueConstraint(name = "uk_job_leases_job_shard", columnNames = {"job_name", "shard"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobLease {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_name", nullable = false, length = 100)
+    private String jobName;
+
+    // 分片序号，从 0 开始
+    @Column(nullable = false)
+    private Integer shard;
+
+    // 持有租约的节点 ID
+    @Column(nullable = false, length = 100)
+    private String owner;
+
+    // 租约到期时间，过期后其他节点可以接管
+    @Column(name = "lease_until", nullable = false)
+    private LocalDateTime leaseUntil;
+}
@@ -0,0 +1,34 @@
+package com.videoplat.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 定时任务节点实体
+ *
+ * 参与分片调度的节点定期写入心跳，存活节点数用于计算每个节点应持有的分片数
+ */
+@Entity
+@Table(name = "job_nodes")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobNode {
+
+    @Id
+    @Column(name = "node_id", length = 100)
+    private String nodeId;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    // 最后一次心跳时间
+    @Column(name = "heartbeat_at", nullable = false)
+    private LocalDateTime heartbeatAt;
+}
@@ -0,0 +1,50 @@
+package com.videoplat.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 定时任务执行记录实体
+ *
+ * 记录每次分片执行的节点、耗时和结果，供管理后台查看
+ */
+@Entity
+@Table(name = "job_runs", indexes = @Index(name = "idx_job_runs_started_at", columnList = "started_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_name", nullable = false, length = 100)
+    private String jobName;
+
+    @Column(nullable = false)
+    private Integer shard;
+
+    // 执行节点 ID
+    @Column(name = "node_id", nullable = false, length = 100)
+    private String nodeId;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "duration_ms", nullable = false)
+    private Long durationMs;
+
+    @Column(nullable = false)
+    private Boolean success;
+
+    // 执行结果摘要或错误信息
+    @Column(columnDefinition = "TEXT")
+    private String detail;
+}
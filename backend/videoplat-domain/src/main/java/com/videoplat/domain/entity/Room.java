@@ -1,5 +1,6 @@
 package com.videoplat.domain.entity;
 
+import com.videoplat.domain.cache.RoomInvalidationListener;
 import com.videoplat.domain.enums.RoomStatus;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -16,8 +17,9 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "rooms")
+@EntityListeners(RoomInvalidationListener.class)
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Room {
@@ -1,5 +1,6 @@
 package com.videoplat.domain.entity;
 
+import com.videoplat.domain.cache.UserProfileInvalidationListener;
 import com.videoplat.domain.enums.UserOnlineStatus;
 import com.videoplat.domain.enums.UserRole;
 import com.videoplat.domain.enums.UserType;
@@ -18,6 +19,7 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "users")
+@EntityListeners(UserProfileInvalidationListener.class)
 @Data
 @Builder
 @NoArgsConstructor
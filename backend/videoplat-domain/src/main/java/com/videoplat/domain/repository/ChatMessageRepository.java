@@ -0,0 +1,31 @@
+package com.videoplat.domain.repository;
+
+import com.videoplat.domain.entity.ChatMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 聊天消息归档数据访问层
+ */
+@Repository
+public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
+
+    // 查询序号区间内最新的消息（倒序），用于向前翻页
+    @Query("SELECT m FROM ChatMessage m WHERE m.roomId = :roomId AND m.seq > :afterSeq AND m.seq < :beforeSeq ORDER BY m.seq DESC")
+    List<ChatMessage> findLatestBetween(@Param("roomId") String roomId,
+                                        @Param("afterSeq") Long afterSeq,
+                                        @Param("beforeSeq") Long beforeSeq,
+                                        Pageable pageable);
+
+    // 查询序号区间内最早的消息（正序），用于增量同步
+    @Query("SELECT m FROM ChatMessage m WHERE m.roomId = :roomId AND m.seq > :afterSeq AND m.seq < :beforeSeq ORDER BY m.seq ASC")
+    List<ChatMessage> findEarliestBetween(@Param("roomId") String roomId,
+                                          @Param("afterSeq") Long afterSeq,
+                                          @Param("beforeSeq") Long beforeSeq,
+                                          Pageable pageable);
+}
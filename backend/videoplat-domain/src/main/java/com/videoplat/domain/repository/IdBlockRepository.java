@@ -0,0 +1,20 @@
+package com.videoplat.domain.repository;
+
+import com.videoplat.domain.entity.IdBlock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 号段分配数据访问层
+ */
+@Repository
+public interface IdBlockRepository extends JpaRepository<IdBlock, String> {
+
+    // 原子地分配一个号段，返回号段的结束值（不含），号段为 [结束值 - size, 结束值)（PostgreSQL）
+    @Query(value = "INSERT INTO id_blocks (name, next_value) VALUES (:name, :size) " +
+            "ON CONFLICT (name) DO UPDATE SET next_value = id_blocks.next_value + EXCLUDED.next_value " +
+            "RETURNING next_value", nativeQuery = true)
+    long allocate(@Param("name") String name, @Param("size") long size);
+}
@@ -0,0 +1,40 @@
+package com.videoplat.domain.repository;
+
+import com.videoplat.domain.entity.JobLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 定时任务分片租约数据访问层
+ */
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, Long> {
+
+    List<JobLease> findAllByOrderByJobNameAscShardAsc();
+
+    // 获取或续约分片租约：分片无人持有、租约已过期或本节点已持有时成功，返回 1，否则返回 0
+    @Modifying
+    @Query(value = "INSERT INTO job_leases (job_name, shard, owner, lease_until) " +
+            "VALUES (:jobName, :shard, :owner, :leaseUntil) " +
+            "ON CONFLICT (job_name, shard) DO UPDATE SET owner = EXCLUDED.owner, lease_until = EXCLUDED.lease_until " +
+            "WHERE job_leases.owner = EXCLUDED.owner OR job_leases.lease_until < :now", nativeQuery = true)
+    int tryAcquire(@Param("jobName") String jobName, @Param("shard") int shard, @Param("owner") String owner,
+                   @Param("leaseUntil") LocalDateTime leaseUntil, @Param("now") LocalDateTime now);
+
+    // 主动释放本节点持有的分片租约
+    @Modifying
+    @Query("UPDATE JobLease l SET l.leaseUntil = :now WHERE l.jobName = :jobName AND l.shard = :shard AND l.owner = :owner")
+    int release(@Param("jobName") String jobName, @Param("shard") int shard, @Param("owner") String owner,
+                @Param("now") LocalDateTime now);
+
+    // 释放节点持有的全部租约（节点停止时调用）
+    @Modifying
+    @Query("UPDATE JobLease l SET l.leaseUntil = :now WHERE l.owner = :owner AND l.leaseUntil > :now")
+    int releaseAll(@Param("owner") String owner, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,34 @@
+package com.videoplat.domain.repository;
+
+import com.videoplat.domain.entity.JobNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 定时任务节点数据访问层
+ */
+@Repository
+public interface JobNodeRepository extends JpaRepository<JobNode, String> {
+
+    List<JobNode> findAllByOrderByStartedAtAsc();
+
+    // 写入节点心跳，节点不存在时插入
+    @Modifying
+    @Query(value = "INSERT INTO job_nodes (node_id, started_at, heartbeat_at) VALUES (:nodeId, :now, :now) " +
+            "ON CONFLICT (node_id) DO UPDATE SET heartbeat_at = EXCLUDED.heartbeat_at", nativeQuery = true)
+    int heartbeat(@Param("nodeId") String nodeId, @Param("now") LocalDateTime now);
+
+    // 统计心跳时间不早于指定时间的节点数
+    long countByHeartbeatAtGreaterThanEqual(LocalDateTime since);
+
+    // 删除长时间没有心跳的节点
+    @Modifying
+    @Query("DELETE FROM JobNode n WHERE n.heartbeatAt < :before")
+    int deleteByHeartbeatAtBefore(@Param("before") LocalDateTime before);
+}
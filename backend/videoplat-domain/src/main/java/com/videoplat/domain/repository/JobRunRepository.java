@@ -0,0 +1,26 @@
+package com.videoplat.domain.repository;
+
+import com.videoplat.domain.entity.JobRun;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * 定时任务执行记录数据访问层
+ */
+@Repository
+public interface JobRunRepository extends JpaRepository<JobRun, Long> {
+
+    Page<JobRun> findByJobName(String jobName, Pageable pageable);
+
+    // 删除早于指定时间的执行记录
+    @Modifying
+    @Query("DELETE FROM JobRun r WHERE r.startedAt < :before")
+    int deleteByStartedAtBefore(@Param("before") LocalDateTime before);
+}
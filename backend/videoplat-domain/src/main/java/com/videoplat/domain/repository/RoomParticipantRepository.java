@@ -2,8 +2,13 @@ package com.videoplat.domain.repository;
 
 import com.videoplat.domain.entity.RoomParticipant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +21,13 @@ public interface RoomParticipantRepository extends JpaRepository<RoomParticipant
     // 查询会议室中当前在线的参与者
     List<RoomParticipant> findByRoomIdAndLeftAtIsNull(Long roomId);
 
+    // 一次查询会议室当前参与者及其用户资料（按加入时间排序），用于参与者列表
+    @Query("SELECT p.id AS id, p.userId AS userId, u.nickname AS nickname, u.avatarUrl AS avatarUrl, " +
+            "p.isHost AS isHost, p.joinedAt AS joinedAt " +
+            "FROM RoomParticipant p JOIN User u ON u.id = p.userId " +
+            "WHERE p.roomId = :roomId AND p.leftAt IS NULL ORDER BY p.joinedAt")
+    List<RosterEntry> findRoster(@Param("roomId") Long roomId);
+
     // 查询指定用户在会议室中的参与记录（仍在线）
     Optional<RoomParticipant> findByRoomIdAndUserIdAndLeftAtIsNull(Long roomId, Long userId);
 
@@ -27,4 +39,58 @@ public interface RoomParticipantRepository extends JpaRepository<RoomParticipant
 
     // 新增：查询用户的所有参与记录
     List<RoomParticipant> findByUserId(Long userId);
+
+    // 批量查询多个会议室的当前参与者，只取会议室和用户 ID
+    @Query("SELECT p.roomId AS roomId, p.userId AS userId FROM RoomParticipant p " +
+            "WHERE p.roomId IN :roomIds AND p.leftAt IS NULL")
+    List<Membership> findActiveMemberships(@Param("roomIds") Collection<Long> roomIds);
+
+    // 批量查询多个用户当前所在的会议室
+    List<RoomParticipant> findByUserIdInAndLeftAtIsNull(Collection<Long> userIds);
+
+    // 写入参与记录，用户已在会议室中（命中唯一索引 idx_participants_room_user_active）时不写入，返回写入行数
+    @Modifying
+    @Query(value = "INSERT INTO room_participants (room_id, user_id, joined_at, is_host) " +
+            "VALUES (:roomId, :userId, :joinedAt, false) " +
+            "ON CONFLICT (room_id, user_id) WHERE left_at IS NULL DO NOTHING", nativeQuery = true)
+    int insertIfNotActive(@Param("roomId") Long roomId, @Param("userId") Long userId,
+                          @Param("joinedAt") LocalDateTime joinedAt);
+
+    // 批量将多个用户从其所在的全部会议室中移出
+    @Modifying
+    @Query("UPDATE RoomParticipant p SET p.leftAt = :leftAt WHERE p.userId IN :userIds AND p.leftAt IS NULL")
+    int markLeftByUserIds(@Param("userIds") Collection<Long> userIds, @Param("leftAt") LocalDateTime leftAt);
+
+    // 批量将多个会议室中的全部参与者移出
+    @Modifying
+    @Query("UPDATE RoomParticipant p SET p.leftAt = :leftAt WHERE p.roomId IN :roomIds AND p.leftAt IS NULL")
+    int markLeftByRoomIds(@Param("roomIds") Collection<Long> roomIds, @Param("leftAt") LocalDateTime leftAt);
+
+    /**
+     * 当前参与关系：会议室主键与用户 ID
+     */
+    interface Membership {
+
+        Long getRoomId();
+
+        Long getUserId();
+    }
+
+    /**
+     * 参与者列表中的一行：参与记录与用户资料
+     */
+    interface RosterEntry {
+
+        Long getId();
+
+        Long getUserId();
+
+        String getNickname();
+
+        String getAvatarUrl();
+
+        Boolean getIsHost();
+
+        LocalDateTime getJoinedAt();
+    }
 }
@@ -5,8 +5,11 @@ import com.videoplat.domain.enums.RoomStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,6 +23,16 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
 
     boolean existsByRoomId(String roomId);
 
+    // 按主键分页查询会议室 ID（构建会议室 ID 布隆过滤器），返回主键大于 afterId 的一页
+    @Query("SELECT r.id AS id, r.roomId AS roomId FROM Room r WHERE r.id > :afterId ORDER BY r.id")
+    List<RoomKey> findRoomKeysAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // 查询一个分片内指定状态的会议室主键，只处理主键对 shardCount 取模等于 shard 的会议室
+    @Query("SELECT r.id FROM Room r WHERE r.status = :status AND MOD(r.id, :shardCount) = :shard")
+    List<Long> findIdsByStatusInShard(@Param("status") RoomStatus status,
+                                      @Param("shardCount") int shardCount,
+                                      @Param("shard") int shard);
+
     // 统计指定状态的会议室数量
     long countByStatus(RoomStatus status);
 
@@ -31,4 +44,45 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
 
     // 新增：根据状态分页查询会议室
     Page<Room> findByStatus(RoomStatus status, Pageable pageable);
+
+    // 结束一批创建时间早于指定时间且无人的活跃会议室，返回被结束的会议室（PostgreSQL，SKIP LOCKED 跳过正在被修改的行）
+    // 只处理主键对 shardCount 取模等于 shard 的会议室，不分片时传 1 和 0
+    @Query(value = "UPDATE rooms SET status = 'ENDED', ended_at = :endedAt WHERE id IN (" +
+            "SELECT r.id FROM rooms r WHERE r.status = 'ACTIVE' AND r.created_at < :createdBefore " +
+            "AND mod(r.id, :shardCount) = :shard " +
+            "AND NOT EXISTS (SELECT 1 FROM room_participants p WHERE p.room_id = r.id AND p.left_at IS NULL) " +
+            "ORDER BY r.id LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, room_id AS \"roomId\"", nativeQuery = true)
+    List<EndedRoom> endEmptyActiveRooms(@Param("createdBefore") LocalDateTime createdBefore,
+                                        @Param("endedAt") LocalDateTime endedAt,
+                                        @Param("shardCount") int shardCount,
+                                        @Param("shard") int shard,
+                                        @Param("limit") int limit);
+
+    // 结束一批活跃会议室（不论是否有人），返回被结束的会议室
+    @Query(value = "UPDATE rooms SET status = 'ENDED', ended_at = :endedAt WHERE id IN (" +
+            "SELECT r.id FROM rooms r WHERE r.status = 'ACTIVE' " +
+            "ORDER BY r.id LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, room_id AS \"roomId\"", nativeQuery = true)
+    List<EndedRoom> endActiveRooms(@Param("endedAt") LocalDateTime endedAt, @Param("limit") int limit);
+
+    /**
+     * 会议室主键和会议室 ID
+     */
+    interface RoomKey {
+
+        Long getId();
+
+        String getRoomId();
+    }
+
+    /**
+     * 批量结束会议室时返回的会议室主键和会议室 ID
+     */
+    interface EndedRoom {
+
+        Long getId();
+
+        String getRoomId();
+    }
 }
@@ -0,0 +1,10 @@
+package com.videoplat.domain;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * 领域模块测试的启动配置，仓库测试从本包开始扫描实体和仓库
+ */
+@SpringBootApplication
+public class DomainTestApplication {
+}
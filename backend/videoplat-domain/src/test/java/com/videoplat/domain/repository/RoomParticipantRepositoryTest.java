@@ -0,0 +1,101 @@
+package com.videoplat.domain.repository;
+
+import com.videoplat.domain.entity.RoomParticipant;
+import com.videoplat.domain.entity.User;
+import com.videoplat.domain.enums.UserType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 参与者列表查询测试：参与记录和用户资料在一条 SQL 中取出，查询次数不随人数增长，没有 Docker 时跳过
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class RoomParticipantRepositoryTest {
+
+    private static final long ROOM_ID = 1L;
+    private static final int PARTICIPANTS = 50;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    }
+
+    @Autowired
+    private RoomParticipantRepository participantRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < PARTICIPANTS; i++) {
+            User user = persistUser("user" + i);
+            entityManager.persist(RoomParticipant.builder()
+                    .roomId(ROOM_ID)
+                    .userId(user.getId())
+                    .isHost(i == 0)
+                    .build());
+        }
+        // 已离开的参与者和其他会议室的参与者不在列表中
+        RoomParticipant left = RoomParticipant.builder().roomId(ROOM_ID).userId(persistUser("left").getId()).build();
+        entityManager.persist(left);
+        left.setLeftAt(left.getJoinedAt());
+        entityManager.persist(RoomParticipant.builder().roomId(ROOM_ID + 1).userId(persistUser("other").getId()).build());
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void rosterIsLoadedWithSingleQuery() {
+        List<RoomParticipantRepository.RosterEntry> roster = participantRepository.findRoster(ROOM_ID);
+
+        assertThat(roster).hasSize(PARTICIPANTS);
+        assertThat(roster).allSatisfy(entry -> assertThat(entry.getNickname()).startsWith("user"));
+        assertThat(roster).filteredOn(RoomParticipantRepository.RosterEntry::getIsHost).hasSize(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        // 投影查询不加载实体，读取用户资料不会触发额外查询
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    private User persistUser(String name) {
+        User user = User.builder()
+                .username(name)
+                .nickname(name)
+                .userType(UserType.REGISTERED)
+                .build();
+        entityManager.persist(user);
+        return user;
+    }
+}
@@ -0,0 +1,35 @@
+package com.videoplat.meeting.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Redis 发布/订阅配置
+ *
+ * 提供跨节点消息分发使用的监听容器
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Configuration
+public class RedisPubSubConfig {
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+
+        // 单线程分发，保证同一频道内的消息按发布顺序处理
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("redis-sub-");
+        executor.initialize();
+        container.setTaskExecutor(executor);
+
+        return container;
+    }
+}
@@ -1,9 +1,11 @@
 package com.videoplat.meeting.controller;
 
 import com.videoplat.common.dto.ApiResponse;
-import com.videoplat.domain.entity.User;
-import com.videoplat.domain.repository.UserRepository;
+import com.videoplat.common.exception.RateLimitedException;
+import com.videoplat.domain.cache.UserProfile;
+import com.videoplat.domain.cache.UserProfileCache;
 import com.videoplat.meeting.dto.ChatMessageDTO;
+import com.videoplat.meeting.dto.ChatSyncResponse;
 import com.videoplat.meeting.service.ChatService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -32,7 +34,7 @@ import java.util.Map;
 public class ChatController {
 
     private final ChatService chatService;
-    private final UserRepository userRepository;
+    private final UserProfileCache userProfileCache;
 
     /**
      * 发送聊天消息
@@ -58,15 +60,18 @@ public class ChatController {
             // 从认证信息中获取用户 ID
             Long userId = Long.parseLong(authentication.getName());
 
-            // 从数据库获取用户信息
-            User user = userRepository.findById(userId)
+            // 从用户资料缓存获取显示名称
+            UserProfile user = userProfileCache.get(userId)
                     .orElseThrow(() -> new RuntimeException("用户不存在"));
 
-            String username = user.getNickname() != null ? user.getNickname() : user.getUsername();
+            String username = user.getDisplayName();
 
             ChatMessageDTO message = chatService.sendMessage(roomId, userId, username, content);
             return ApiResponse.success(message);
 
+        } catch (RateLimitedException e) {
+            // 交给全局异常处理器返回 429
+            throw e;
         } catch (Exception e) {
             log.error("发送聊天消息失败", e);
             return ApiResponse.error("发送消息失败");
@@ -76,16 +81,24 @@ public class ChatController {
     /**
      * 获取会议室聊天历史
      *
+     * 不带游标时返回最新的 limit 条消息；带 before 时向前翻页，带 after 时获取新消息
+     *
      * @param roomId 会议室 ID
+     * @param after 起始游标（不包含）
+     * @param before 结束游标（不包含）
+     * @param limit 最多返回的消息数
      * @return 聊天消息列表
      */
     @GetMapping("/rooms/{roomId}/messages")
-    @Operation(summary = "获取聊天历史", description = "获取指定会议室的聊天历史记录")
+    @Operation(summary = "获取聊天历史", description = "按游标分页获取指定会议室的聊天历史记录")
     public ApiResponse<List<ChatMessageDTO>> getChatHistory(
-            @Parameter(description = "会议室 ID") @PathVariable String roomId) {
+            @Parameter(description = "会议室 ID") @PathVariable String roomId,
+            @Parameter(description = "起始游标（不包含）") @RequestParam(required = false) String after,
+            @Parameter(description = "结束游标（不包含）") @RequestParam(required = false) String before,
+            @Parameter(description = "最多返回的消息数") @RequestParam(defaultValue = "100") int limit) {
 
         try {
-            List<ChatMessageDTO> messages = chatService.getChatHistory(roomId);
+            List<ChatMessageDTO> messages = chatService.getChatHistory(roomId, after, before, limit);
             return ApiResponse.success(messages);
         } catch (Exception e) {
             log.error("获取聊天历史失败", e);
@@ -93,6 +106,31 @@ public class ChatController {
         }
     }
 
+    /**
+     * 增量同步聊天消息
+     *
+     * 客户端重连后提交已收到的最大序号，只下载缺失的消息
+     *
+     * @param roomId 会议室 ID
+     * @param since 已收到的最大序号
+     * @param limit 最多返回的消息数
+     * @return 增量同步结果
+     */
+    @GetMapping("/rooms/{roomId}/messages/sync")
+    @Operation(summary = "增量同步聊天消息", description = "获取指定序号之后的聊天消息")
+    public ApiResponse<ChatSyncResponse> syncMessages(
+            @Parameter(description = "会议室 ID") @PathVariable String roomId,
+            @Parameter(description = "已收到的最大序号") @RequestParam(defaultValue = "0") long since,
+            @Parameter(description = "最多返回的消息数") @RequestParam(defaultValue = "100") int limit) {
+
+        try {
+            return ApiResponse.success(chatService.syncMessages(roomId, since, limit));
+        } catch (Exception e) {
+            log.error("同步聊天消息失败", e);
+            return ApiResponse.error("同步聊天消息失败");
+        }
+    }
+
     /**
      * 清除会议室聊天历史
      *
@@ -1,7 +1,9 @@
 package com.videoplat.meeting.controller;
 
 import com.videoplat.common.dto.ApiResponse;
+import com.videoplat.common.exception.RateLimitedException;
 import com.videoplat.meeting.dto.*;
+import com.videoplat.meeting.service.RoomJoinQueue;
 import com.videoplat.meeting.service.RoomService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -10,8 +12,11 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
 
 /**
  * 会议室控制器
@@ -28,6 +33,7 @@ import java.util.List;
 public class RoomController {
 
     private final RoomService roomService;
+    private final RoomJoinQueue roomJoinQueue;
 
     @PostMapping
     @Operation(summary = "创建会议室")
@@ -47,14 +53,30 @@ public class RoomController {
     }
 
     @PostMapping("/{roomId}/join")
-    @Operation(summary = "加入会议室")
-    public ResponseEntity<ApiResponse<Void>> joinRoom(
+    @Operation(summary = "加入会议室", description = "集中加入时请求进入排队，排队位置通过 WebSocket 推送，队列已满或等待超时返回 429")
+    public DeferredResult<ResponseEntity<ApiResponse<JoinRoomResponse>>> joinRoom(
             @PathVariable String roomId,
             @RequestBody JoinRoomRequest request,
             Authentication authentication) {
         Long userId = Long.parseLong(authentication.getName());
-        roomService.joinRoom(roomId, request, userId);
-        return ResponseEntity.ok(ApiResponse.success("成功加入会议室", null));
+        DeferredResult<ResponseEntity<ApiResponse<JoinRoomResponse>>> result =
+                new DeferredResult<>(roomJoinQueue.getMaxWait().toMillis());
+        CompletableFuture<JoinRoomResponse> future = roomJoinQueue.submit(roomId, request, userId);
+
+        // 超时后取消排队；已开始处理的加入仍会完成，客户端重试时按已在会议室中处理
+        result.onTimeout(() -> {
+            future.cancel(false);
+            result.setErrorResult(new RateLimitedException("加入会议室排队超时，请稍后重试",
+                    roomJoinQueue.retryAfterSeconds(roomId)));
+        });
+        future.whenComplete((response, ex) -> {
+            if (ex == null) {
+                result.setResult(ResponseEntity.ok(ApiResponse.success("成功加入会议室", response)));
+            } else if (!(ex instanceof CancellationException)) {
+                result.setErrorResult(ex);
+            }
+        });
+        return result;
     }
 
     @PostMapping("/{roomId}/leave")
@@ -94,6 +116,17 @@ public class RoomController {
         return ResponseEntity.ok(ApiResponse.success(token));
     }
 
+    @PostMapping("/{roomId}/agora-tokens")
+    @Operation(summary = "批量获取 Agora Token", description = "主持人为多个用户批量生成 Token，返回顺序与请求中的用户顺序一致")
+    public ResponseEntity<ApiResponse<List<AgoraTokenResponse>>> getAgoraTokens(
+            @PathVariable String roomId,
+            @Valid @RequestBody BatchAgoraTokenRequest request,
+            Authentication authentication) {
+        Long userId = Long.parseLong(authentication.getName());
+        List<AgoraTokenResponse> tokens = roomService.getAgoraTokens(roomId, request, userId);
+        return ResponseEntity.ok(ApiResponse.success(tokens));
+    }
+
     @PostMapping("/cleanup")
     @Operation(summary = "手动清理无人会议室", description = "清理所有无人的活跃会议室")
     public ResponseEntity<ApiResponse<Integer>> manualCleanup() {
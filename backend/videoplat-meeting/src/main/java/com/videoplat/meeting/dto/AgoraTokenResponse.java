@@ -18,5 +18,8 @@ public class AgoraTokenResponse {
     private String appId;
     private String channelName;
     private Integer uid;
+    // 剩余有效期（秒）
     private Integer expirationTime;
+    // 过期时间戳（秒）
+    private Long expiresAt;
 }
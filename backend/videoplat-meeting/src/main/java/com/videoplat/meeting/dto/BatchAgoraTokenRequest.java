@@ -0,0 +1,21 @@
+package com.videoplat.meeting.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量生成 Agora Token 请求
+ */
+@Data
+public class BatchAgoraTokenRequest {
+
+    @NotEmpty(message = "用户列表不能为空")
+    private List<Integer> uids;
+
+    // 角色：publisher（可发送音视频，默认）或 subscriber（只能接收）
+    @Pattern(regexp = "(?i)publisher|subscriber", message = "角色只能是 publisher 或 subscriber")
+    private String role = "publisher";
+}
@@ -53,4 +53,9 @@ public class ChatMessageDTO {
      * 发送时间
      */
     private LocalDateTime timestamp;
+
+    /**
+     * 分页游标，用于查询该消息之前或之后的历史
+     */
+    private String cursor;
 }
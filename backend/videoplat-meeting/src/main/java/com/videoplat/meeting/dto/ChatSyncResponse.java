@@ -0,0 +1,46 @@
+package com.videoplat.meeting.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 聊天增量同步响应
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatSyncResponse {
+
+    /**
+     * 会议室 ID
+     */
+    private String roomId;
+
+    /**
+     * 客户端提供的起始序号之后的消息，按序号正序排列
+     */
+    private List<ChatMessageDTO> messages;
+
+    /**
+     * 会议室最新的消息序号
+     */
+    private Long latestSeq;
+
+    /**
+     * 是否还有更多消息未返回，客户端应以最后一条消息的序号继续同步
+     */
+    private Boolean hasMore;
+
+    /**
+     * 部分消息已超出保留范围无法补齐，客户端应重新加载历史
+     */
+    private Boolean truncated;
+}
@@ -9,4 +9,7 @@ import lombok.Data;
 public class JoinRoomRequest {
 
     private String password;
+
+    // 之前加入时签发的准入票据，有效时跳过密码校验
+    private String admissionTicket;
 }
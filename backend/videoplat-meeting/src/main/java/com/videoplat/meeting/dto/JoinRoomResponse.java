@@ -0,0 +1,26 @@
+package com.videoplat.meeting.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 加入会议室响应
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JoinRoomResponse {
+
+    /**
+     * 会议室准入票据，有密码的会议室才签发；重新加入时放在请求中可跳过密码校验
+     */
+    private String admissionTicket;
+
+    /**
+     * 票据有效期（秒）
+     */
+    private Long ticketExpiresIn;
+}
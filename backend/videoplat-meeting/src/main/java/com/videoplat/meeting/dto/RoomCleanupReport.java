@@ -0,0 +1,31 @@
+package com.videoplat.meeting.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 会议室批量清理结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomCleanupReport {
+
+    // 清理类型：inactive（定时清理）、empty（手动清理无人会议室）、force（强制结束全部）
+    private String type;
+
+    // 结束的会议室数
+    private int roomsEnded;
+
+    // 被移出的参与记录数
+    private int participantsReleased;
+
+    // 分块数（每块一个事务）
+    private int chunks;
+
+    // 总耗时（毫秒）
+    private long durationMillis;
+}
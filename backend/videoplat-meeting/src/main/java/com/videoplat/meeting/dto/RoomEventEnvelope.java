@@ -0,0 +1,63 @@
+package com.videoplat.meeting.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 跨节点会议室事件信封
+ *
+ * 一个信封包含同一分片频道上批量发布的多个会议室事件
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomEventEnvelope {
+
+    /**
+     * 发布节点 ID，用于丢弃本节点发布的消息
+     */
+    private String nodeId;
+
+    /**
+     * 会议室事件列表
+     */
+    private List<RoomEvent> events;
+
+    /**
+     * 会议室事件
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RoomEvent {
+
+        /**
+         * 事件类型（MESSAGE, JOIN, LEAVE, CLOSE）
+         */
+        private String kind;
+
+        /**
+         * 会议室 ID
+         */
+        private String roomId;
+
+        /**
+         * 用户 ID（JOIN、LEAVE 事件）
+         */
+        private Long userId;
+
+        /**
+         * 已序列化的消息内容（MESSAGE 事件）
+         */
+        private String payload;
+    }
+}
@@ -0,0 +1,80 @@
+package com.videoplat.meeting.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * WebSocket 帧
+ *
+ * 客户端发送：chat、heartbeat、subscribe、unsubscribe、resume；
+ * 服务端回复：ack（携带请求 ID，聊天消息还携带分配的序号）、error、chat_sync；
+ * 服务端推送：join_queue（加入会议室排队中的位置）、agora_token（Token 过期前推送的新 Token）。
+ * 聊天广播仍直接推送 {@link ChatMessageDTO}
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WsFrame {
+
+    public static final String TYPE_CHAT = "chat";
+    public static final String TYPE_HEARTBEAT = "heartbeat";
+    public static final String TYPE_SUBSCRIBE = "subscribe";
+    public static final String TYPE_UNSUBSCRIBE = "unsubscribe";
+    public static final String TYPE_RESUME = "resume";
+    public static final String TYPE_ACK = "ack";
+    public static final String TYPE_ERROR = "error";
+    public static final String TYPE_CHAT_SYNC = "chat_sync";
+    public static final String TYPE_JOIN_QUEUE = "join_queue";
+    public static final String TYPE_AGORA_TOKEN = "agora_token";
+
+    /**
+     * 帧类型
+     */
+    private String type;
+
+    /**
+     * 客户端请求 ID，服务端在 ack/error 中原样返回
+     */
+    private String requestId;
+
+    /**
+     * 会议室 ID
+     */
+    private String roomId;
+
+    /**
+     * 聊天内容（chat）
+     */
+    private String content;
+
+    /**
+     * 客户端已收到的最大序号（resume）
+     */
+    private Long since;
+
+    /**
+     * 服务端分配的消息序号（chat 的 ack）
+     */
+    private Long seq;
+
+    /**
+     * 错误代码（error）
+     */
+    private String code;
+
+    /**
+     * 错误描述（error）
+     */
+    private String message;
+
+    /**
+     * 附带数据（chat_sync、join_queue、agora_token）
+     */
+    private Object data;
+}
@@ -0,0 +1,49 @@
+package com.videoplat.meeting.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 事务提交后执行的同步操作
+ *
+ * 在场人数、消息频道成员和跨节点通知等不在数据库事务内的状态，必须在事务提交后才更新，
+ * 否则事务回滚时其他节点已经收到了不存在的变更。没有事务时立即执行。
+ * 此时数据库已经提交，执行失败只记录日志：在场人数由对账任务修正，
+ * 消息频道成员在用户重新订阅或断线时更新
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Slf4j
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    /**
+     * 在当前事务提交后执行，事务回滚时不执行
+     *
+     * @param action 同步操作
+     */
+    public static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            runSafely(action);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                runSafely(action);
+            }
+        });
+    }
+
+    private static void runSafely(Runnable action) {
+        try {
+            action.run();
+        } catch (Exception e) {
+            log.warn("事务提交后的同步操作失败", e);
+        }
+    }
+}
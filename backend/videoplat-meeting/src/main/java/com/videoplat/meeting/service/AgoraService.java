@@ -1,13 +1,24 @@
 package com.videoplat.meeting.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.agora.media.RtcTokenBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Agora 声网服务
  *
- * 负责生成 Agora RTC Token，用于客户端加入音视频频道
+ * 负责生成 Agora RTC Token，用于客户端加入音视频频道。
+ * 生成的 Token 按（频道、用户、角色）缓存，距过期不足刷新余量时才重新生成，
+ * 客户端重复获取时直接返回仍然有效的 Token
  *
  * @author VideoPlat Team
  * @since 1.0
@@ -15,6 +26,8 @@ import org.springframework.stereotype.Service;
 @Service
 public class AgoraService {
 
+    private final MeterRegistry meterRegistry;
+
     @Value("${app.agora.app-id}")
     private String appId;
 
@@ -25,21 +38,110 @@ public class AgoraService {
     @Value("${app.agora.token-expiration}")
     private Integer tokenExpiration;
 
+    // 距过期不足该时间的缓存 Token 不再返回，重新生成
+    @Value("${app.agora.token-cache.refresh-margin:PT5M}")
+    private Duration refreshMargin;
+
+    @Value("${app.agora.token-cache.max-size:100000}")
+    private long cacheMaxSize;
+
+    private Cache<TokenKey, RtcToken> tokenCache;
+
+    public AgoraService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        // 所有 Token 有效期相同，按写入时间过期即可保证返回的 Token 至少还有刷新余量的有效期
+        long cacheSeconds = Math.max(0, tokenExpiration - refreshMargin.toSeconds());
+        tokenCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, tokenCache, "agora-token");
+    }
+
     /**
-     * 生成 Agora RTC Token
+     * 生成 Agora RTC Token（发布者角色）
      *
      * Token 用于客户端加入 Agora 频道，具有时效性（默认 1 小时）
      *
      * @param channelName 频道名称（会议室 ID）
      * @param uid 用户 ID
-     * @return RTC Token，如果未配置 App Certificate 则返回 null（开发环境可不使用 Token）
+     * @return RTC Token，如果未配置 App Certificate 则 token 为 null（开发环境可不使用 Token）
+     */
+    public RtcToken generateRtcToken(String channelName, Integer uid) {
+        return generateRtcToken(channelName, uid, RtcTokenBuilder.Role.Role_Publisher);
+    }
+
+    /**
+     * 生成指定角色的 Agora RTC Token，优先返回缓存中仍然有效的 Token
+     *
+     * @param channelName 频道名称（会议室 ID）
+     * @param uid 用户 ID
+     * @param role 角色：发布者可发送和接收音视频，订阅者只能接收
+     * @return RTC Token
+     */
+    public RtcToken generateRtcToken(String channelName, Integer uid, RtcTokenBuilder.Role role) {
+        if (appCertificate == null || appCertificate.isEmpty()) {
+            // 如果没有配置 App Certificate，返回空 Token（开发环境可以不使用 token）
+            return new RtcToken(null, System.currentTimeMillis() / 1000 + tokenExpiration);
+        }
+        return tokenCache.get(new TokenKey(channelName, uid, role), key -> buildToken(key, new RtcTokenBuilder()));
+    }
+
+    /**
+     * 生成新的发布者 Token，不读取也不写入缓存
+     *
+     * 用于服务端录制等长时间持有 Token 的场景：缓存中的 Token 可能只剩刷新余量内的有效期，
+     * 录制器拿到后很快就会因 Token 过期被踢出频道
+     *
+     * @param channelName 频道名称（会议室 ID）
+     * @param uid 用户 ID
+     * @return 有效期完整的 RTC Token
      */
-    public String generateRtcToken(String channelName, Integer uid) {
+    public RtcToken generateFreshRtcToken(String channelName, Integer uid) {
         if (appCertificate == null || appCertificate.isEmpty()) {
-            // 如果没有配置 App Certificate，返回 null（开发环境可以不使用 token）
-            return null;
+            return new RtcToken(null, System.currentTimeMillis() / 1000 + tokenExpiration);
         }
+        return buildToken(new TokenKey(channelName, uid, RtcTokenBuilder.Role.Role_Publisher), new RtcTokenBuilder());
+    }
 
+    /**
+     * 批量生成同一频道多个用户的 Token
+     *
+     * @param channelName 频道名称（会议室 ID）
+     * @param uids 用户 ID 列表
+     * @param role 角色
+     * @return 与 uids 顺序一致的 Token 列表
+     */
+    public List<RtcToken> generateRtcTokens(String channelName, List<Integer> uids, RtcTokenBuilder.Role role) {
+        List<RtcToken> tokens = new ArrayList<>(uids.size());
+        if (appCertificate == null || appCertificate.isEmpty()) {
+            long expiresAt = System.currentTimeMillis() / 1000 + tokenExpiration;
+            uids.forEach(uid -> tokens.add(new RtcToken(null, expiresAt)));
+            return tokens;
+        }
+        // 整批复用一个 TokenBuilder 实例
+        RtcTokenBuilder tokenBuilder = new RtcTokenBuilder();
+        for (Integer uid : uids) {
+            tokens.add(tokenCache.get(new TokenKey(channelName, uid, role), key -> buildToken(key, tokenBuilder)));
+        }
+        return tokens;
+    }
+
+    /**
+     * 获取 Agora App ID
+     *
+     * @return App ID
+     */
+    public String getAppId() {
+        return appId;
+    }
+
+    private RtcToken buildToken(TokenKey key, RtcTokenBuilder tokenBuilder) {
         // 1. 获取当前时间戳（秒）
         int timestamp = (int) (System.currentTimeMillis() / 1000);
 
@@ -47,23 +149,33 @@ public class AgoraService {
         int privilegeExpiredTs = timestamp + tokenExpiration;
 
         // 3. 使用 Agora SDK 生成 Token
-        RtcTokenBuilder tokenBuilder = new RtcTokenBuilder();
-        return tokenBuilder.buildTokenWithUid(
+        String token = tokenBuilder.buildTokenWithUid(
                 appId,
                 appCertificate,
-                channelName,
-                uid,
-                RtcTokenBuilder.Role.Role_Publisher,  // 发布者角色，可发送和接收音视频
+                key.channelName(),
+                key.uid(),
+                key.role(),
                 privilegeExpiredTs
         );
+        return new RtcToken(token, privilegeExpiredTs);
     }
 
     /**
-     * 获取 Agora App ID
+     * 生成的 Token 及其过期时间
      *
-     * @return App ID
+     * @param token RTC Token
+     * @param expiresAt 过期时间戳（秒）
      */
-    public String getAppId() {
-        return appId;
+    public record RtcToken(String token, long expiresAt) {
+
+        /**
+         * 剩余有效期（秒）
+         */
+        public int remainingSeconds() {
+            return (int) Math.max(0, expiresAt - System.currentTimeMillis() / 1000);
+        }
+    }
+
+    private record TokenKey(String channelName, Integer uid, RtcTokenBuilder.Role role) {
     }
 }
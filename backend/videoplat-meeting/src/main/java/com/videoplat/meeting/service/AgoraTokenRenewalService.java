@@ -0,0 +1,194 @@
+package com.videoplat.meeting.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.videoplat.common.util.HashedTimingWheel;
+import com.videoplat.meeting.dto.AgoraTokenResponse;
+import com.videoplat.meeting.dto.WsFrame;
+import com.videoplat.meeting.websocket.WebSocketSessionRegistry;
+import io.agora.media.RtcTokenBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agora Token 主动续期服务
+ *
+ * 每次签发 Token 后在时间轮上挂一个续期任务，到期时间为 Token 过期前的提前量再减去随机抖动，
+ * 同一时刻签发的大批 Token 的续期分散到抖动窗口内。到期的续期先放入待处理队列，
+ * 由定时任务按会议室分组批量生成新 Token，通过 WebSocket 推送 agora_token 帧给本节点上的用户；
+ * 用户已不在会议室频道中，或 WebSocket 连接不在本节点时不再续期：会议室成员索引在所有节点上同步，
+ * 不能说明连接在本节点，而推送只能发给本节点的连接。获取 Token 的请求与连接落在不同节点时
+ * 不做主动续期，客户端在 Token 即将过期时重新调用获取 Token 接口。
+ * 提前量应小于 Token 缓存的刷新余量，保证续期时生成的是新 Token
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Slf4j
+@Service
+public class AgoraTokenRenewalService {
+
+    private final AgoraService agoraService;
+    private final WebSocketSessionRegistry sessionRegistry;
+    private final ObjectMapper objectMapper;
+    private final Counter renewedCounter;
+
+    // 续期任务，key 为 会议室 ID:用户 ID
+    private final Map<String, HashedTimingWheel.Timeout> renewals = new ConcurrentHashMap<>();
+
+    // 已到期、等待批量续期的任务
+    private final Queue<Renewal> dueRenewals = new ConcurrentLinkedQueue<>();
+
+    // 是否启用主动续期
+    @Value("${app.agora.renewal.enabled:true}")
+    private boolean enabled;
+
+    // 在 Token 过期前多久推送新 Token
+    @Value("${app.agora.renewal.lead-time:PT2M}")
+    private Duration leadTime;
+
+    // 随机提前的最大时间，打散同一时刻签发的 Token 的续期
+    @Value("${app.agora.renewal.jitter:PT60S}")
+    private Duration jitter;
+
+    private HashedTimingWheel timingWheel;
+
+    public AgoraTokenRenewalService(AgoraService agoraService,
+                                    WebSocketSessionRegistry sessionRegistry,
+                                    ObjectMapper objectMapper,
+                                    MeterRegistry meterRegistry) {
+        this.agoraService = agoraService;
+        this.sessionRegistry = sessionRegistry;
+        this.objectMapper = objectMapper;
+        this.renewedCounter = Counter.builder("agora.token.renewed")
+                .description("通过 WebSocket 主动推送的续期 Token 数")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        // 1 秒一格、512 格，1 小时的 Token 约绕 7 圈
+        timingWheel = new HashedTimingWheel("agora-renewal-wheel", 1, TimeUnit.SECONDS, 512);
+        timingWheel.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        timingWheel.stop();
+    }
+
+    /**
+     * 登记已签发的 Token，替换该用户在该会议室之前的续期任务
+     *
+     * @param roomId 会议室 ID
+     * @param userId 用户 ID
+     * @param expiresAt Token 过期时间戳（秒）
+     */
+    public void track(String roomId, Long userId, long expiresAt) {
+        if (!enabled) {
+            return;
+        }
+        long jitterMillis = jitter.toMillis() > 0 ? ThreadLocalRandom.current().nextLong(jitter.toMillis()) : 0L;
+        long delayMillis = expiresAt * 1000 - leadTime.toMillis() - jitterMillis - System.currentTimeMillis();
+        String key = roomId + ":" + userId;
+        Renewal renewal = new Renewal(roomId, userId);
+        HashedTimingWheel.Timeout[] holder = new HashedTimingWheel.Timeout[1];
+        holder[0] = timingWheel.schedule(() -> {
+            // 只处理仍是当前任务的到期，期间被替换或取消的忽略
+            if (renewals.remove(key, holder[0])) {
+                dueRenewals.add(renewal);
+            }
+        }, Math.max(0, delayMillis), TimeUnit.MILLISECONDS);
+        HashedTimingWheel.Timeout previous = renewals.put(key, holder[0]);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    /**
+     * 取消用户在会议室的续期（离开会议室时调用）
+     *
+     * @param roomId 会议室 ID
+     * @param userId 用户 ID
+     */
+    public void cancel(String roomId, Long userId) {
+        HashedTimingWheel.Timeout timeout = renewals.remove(roomId + ":" + userId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    /**
+     * 批量处理到期的续期：按会议室分组生成新 Token 并推送
+     */
+    @Scheduled(fixedDelayString = "${app.agora.renewal.flush-interval:1000}")
+    public void flushDue() {
+        Map<String, List<Long>> byRoom = new HashMap<>();
+        Renewal renewal;
+        while ((renewal = dueRenewals.poll()) != null) {
+            // 用户已离开会议室或连接不在本节点时不续期，也不再登记，重新获取 Token 时会再次登记
+            if (sessionRegistry.isConnected(renewal.userId)
+                    && sessionRegistry.isRoomMember(renewal.roomId, renewal.userId)) {
+                byRoom.computeIfAbsent(renewal.roomId, id -> new ArrayList<>()).add(renewal.userId);
+            }
+        }
+        byRoom.forEach(this::renew);
+    }
+
+    private void renew(String roomId, List<Long> userIds) {
+        List<Integer> uids = userIds.stream().map(Long::intValue).toList();
+        List<AgoraService.RtcToken> tokens;
+        try {
+            tokens = agoraService.generateRtcTokens(roomId, uids, RtcTokenBuilder.Role.Role_Publisher);
+        } catch (Exception e) {
+            log.error("会议室 {} 的 Agora Token 续期失败，涉及 {} 个用户", roomId, userIds.size(), e);
+            return;
+        }
+        for (int i = 0; i < userIds.size(); i++) {
+            Long userId = userIds.get(i);
+            AgoraService.RtcToken token = tokens.get(i);
+            try {
+                AgoraTokenResponse response = AgoraTokenResponse.builder()
+                        .token(token.token())
+                        .appId(agoraService.getAppId())
+                        .channelName(roomId)
+                        .uid(uids.get(i))
+                        .expirationTime(token.remainingSeconds())
+                        .expiresAt(token.expiresAt())
+                        .build();
+                String frame = objectMapper.writeValueAsString(WsFrame.builder()
+                        .type(WsFrame.TYPE_AGORA_TOKEN)
+                        .roomId(roomId)
+                        .data(response)
+                        .build());
+                // 同一会议室未发出的旧 Token 只保留最新一条
+                sessionRegistry.sendMessageToUser(userId, frame, "agora_token:" + roomId);
+                track(roomId, userId, token.expiresAt());
+                renewedCounter.increment();
+            } catch (Exception e) {
+                log.warn("推送续期 Token 失败，会议室 {} 用户 {}", roomId, userId, e);
+            }
+        }
+        log.debug("会议室 {} 续期 {} 个 Agora Token", roomId, userIds.size());
+    }
+
+    // 到期的续期任务
+    private record Renewal(String roomId, Long userId) {
+    }
+}
@@ -0,0 +1,325 @@
+package com.videoplat.meeting.service;
+
+import com.videoplat.domain.entity.ChatMessage;
+import com.videoplat.domain.repository.ChatMessageRepository;
+import com.videoplat.meeting.dto.ChatMessageDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 聊天消息归档服务
+ *
+ * Redis 保存最近的聊天消息，本服务在后台线程中将新消息批量写入 chat_messages 表，
+ * 每积累 batch-size 条或每隔 flush-interval 毫秒写入一次。
+ * 队列已满时提交方（分发管道的消费线程）等待队列腾出空间，不丢弃消息：
+ * 分发管道随之积压，发送方收到限流响应，归档写入速度决定聊天的最大吞吐。
+ * 写入失败时按指数退避重试同一批消息，重试期间不再消费队列，同样由上述背压限制提交方；
+ * 数据本身有误（违反约束）或持续失败超过 retry-timeout 时才放弃该批并计入 chat.archive.failed。
+ * 超出 Redis 保留范围的历史消息从归档表中读取
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Slf4j
+@Service
+public class ChatArchiveService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO chat_messages (room_id, seq, user_id, username, content, type, sent_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT (room_id, seq) DO NOTHING";
+
+    // 队列已满时每次等待的时间，期间检查归档服务是否已停止
+    private static final long OFFER_RETRY_MILLIS = 100;
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Counter archivedCounter;
+    private final Counter droppedCounter;
+    private final Counter failedCounter;
+    private final Counter retriedCounter;
+    private final Timer backpressureTimer;
+
+    // 待归档消息队列
+    private final BlockingQueue<ChatMessageDTO> queue;
+
+    // 是否启用聊天归档
+    @Value("${app.chat.archive.enabled:true}")
+    private boolean enabled;
+
+    // 单批写入的最大消息数
+    @Value("${app.chat.archive.batch-size:200}")
+    private int batchSize;
+
+    // 最长写入间隔（毫秒）
+    @Value("${app.chat.archive.flush-interval:500}")
+    private long flushInterval;
+
+    // 写入失败后首次重试前的等待时间，之后每次翻倍
+    @Value("${app.chat.archive.retry-initial-backoff:PT0.2S}")
+    private Duration retryInitialBackoff;
+
+    // 重试等待时间的上限
+    @Value("${app.chat.archive.retry-max-backoff:PT10S}")
+    private Duration retryMaxBackoff;
+
+    // 同一批消息持续写入失败的最长时间，超过后放弃该批
+    @Value("${app.chat.archive.retry-timeout:PT10M}")
+    private Duration retryTimeout;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public ChatArchiveService(ChatMessageRepository chatMessageRepository,
+                              JdbcTemplate jdbcTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.chat.archive.queue-capacity:10000}") int queueCapacity) {
+        this.chatMessageRepository = chatMessageRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("chat.archive.queue.depth", queue, BlockingQueue::size)
+                .description("待归档的聊天消息数")
+                .register(meterRegistry);
+        this.archivedCounter = Counter.builder("chat.archive.written")
+                .description("已写入归档表的聊天消息数")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("chat.archive.dropped")
+                .description("归档服务停止时未能提交的聊天消息数")
+                .register(meterRegistry);
+        this.backpressureTimer = Timer.builder("chat.archive.backpressure")
+                .description("归档队列已满时提交方的等待时间")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("chat.archive.failed")
+                .description("重试后仍写入归档表失败、已放弃的聊天消息数")
+                .register(meterRegistry);
+        this.retriedCounter = Counter.builder("chat.archive.retried")
+                .description("写入归档表失败后的重试次数")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("聊天归档已关闭");
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::runWriter, "chat-archiver");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * 停止归档线程，并写入队列中剩余的消息
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writerThread != null) {
+            writerThread.interrupt();
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * 是否启用聊天归档
+     *
+     * @return true 表示已启用
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 提交待归档的消息，队列已满时阻塞调用线程直到队列腾出空间
+     *
+     * 归档线程持续消费队列，写入失败时重试期间暂停消费，等待时间受数据库写入速度和可用性限制；
+     * 只有归档服务停止或调用线程被中断时才放弃提交
+     *
+     * @param message 已分配序号的聊天消息
+     */
+    public void archive(ChatMessageDTO message) {
+        if (!enabled || message.getId() == null) {
+            return;
+        }
+        if (queue.offer(message)) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            while (!queue.offer(message, OFFER_RETRY_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (!running) {
+                    drop(message);
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            drop(message);
+        } finally {
+            backpressureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 查询序号区间内最新的归档消息
+     *
+     * @param roomId 会议室 ID
+     * @param afterSeq 起始序号（不包含）
+     * @param beforeSeq 结束序号（不包含）
+     * @param limit 最多返回的消息数
+     * @return 聊天消息列表，按序号正序排列
+     */
+    public List<ChatMessageDTO> findLatest(String roomId, long afterSeq, long beforeSeq, int limit) {
+        List<ChatMessageDTO> messages = toDtoList(chatMessageRepository.findLatestBetween(
+                roomId, afterSeq, beforeSeq, PageRequest.of(0, limit)));
+        Collections.reverse(messages);
+        return messages;
+    }
+
+    /**
+     * 查询序号区间内最早的归档消息
+     *
+     * @param roomId 会议室 ID
+     * @param afterSeq 起始序号（不包含）
+     * @param beforeSeq 结束序号（不包含）
+     * @param limit 最多返回的消息数
+     * @return 聊天消息列表，按序号正序排列
+     */
+    public List<ChatMessageDTO> findEarliest(String roomId, long afterSeq, long beforeSeq, int limit) {
+        return toDtoList(chatMessageRepository.findEarliestBetween(
+                roomId, afterSeq, beforeSeq, PageRequest.of(0, limit)));
+    }
+
+    private void drop(ChatMessageDTO message) {
+        droppedCounter.increment();
+        log.warn("聊天归档服务已停止，会议室 {} 的消息 {} 未归档", message.getRoomId(), message.getId());
+    }
+
+    // 归档线程：凑满一批或到达写入间隔时批量写入
+    private void runWriter() {
+        List<ChatMessageDTO> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushInterval);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    ChatMessageDTO message = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (message == null) {
+                        break;
+                    }
+                    batch.add(message);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                // 停止信号，退出循环后写入剩余消息
+            }
+            writeBatch(batch);
+        }
+
+        // 关闭前写入队列中剩余的消息（不再重试）
+        while (queue.drainTo(batch, batchSize) > 0) {
+            writeBatch(batch);
+        }
+    }
+
+    // 写入一批消息，失败时按指数退避重试，直到成功、数据有误、超时或归档服务停止
+    private void writeBatch(List<ChatMessageDTO> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long backoffMillis = retryInitialBackoff.toMillis();
+        long giveUpAt = System.nanoTime() + retryTimeout.toNanos();
+        try {
+            while (true) {
+                try {
+                    insert(batch);
+                    archivedCounter.increment(batch.size());
+                    return;
+                } catch (DataIntegrityViolationException e) {
+                    // 数据本身有误，重试也不会成功
+                    fail(batch, e);
+                    return;
+                } catch (Exception e) {
+                    if (!running || System.nanoTime() - giveUpAt >= 0) {
+                        fail(batch, e);
+                        return;
+                    }
+                    retriedCounter.increment();
+                    log.warn("写入聊天归档失败，{} ms 后重试，共 {} 条消息: {}", backoffMillis, batch.size(), e.toString());
+                }
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException e) {
+                    // 停止信号：再尝试一次，失败时放弃
+                }
+                backoffMillis = Math.min(backoffMillis * 2, retryMaxBackoff.toMillis());
+            }
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private void fail(List<ChatMessageDTO> batch, Exception e) {
+        failedCounter.increment(batch.size());
+        log.error("写入聊天归档失败，放弃 {} 条消息（会议室 {}，序号 {} 起）",
+                batch.size(), batch.get(0).getRoomId(), batch.get(0).getId(), e);
+    }
+
+    // 批量写入归档表，(room_id, seq) 冲突的消息直接忽略
+    private void insert(List<ChatMessageDTO> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, message) -> {
+            ps.setString(1, message.getRoomId());
+            ps.setLong(2, message.getId());
+            ps.setLong(3, message.getUserId() != null ? message.getUserId() : 0L);
+            ps.setString(4, message.getUsername());
+            ps.setString(5, message.getContent());
+            ps.setString(6, message.getType() != null ? message.getType() : "text");
+            LocalDateTime sentAt = message.getTimestamp() != null ? message.getTimestamp() : LocalDateTime.now();
+            ps.setTimestamp(7, Timestamp.valueOf(sentAt));
+        });
+    }
+
+    // 实体列表转换为 DTO 列表
+    private List<ChatMessageDTO> toDtoList(List<ChatMessage> entities) {
+        List<ChatMessageDTO> messages = new ArrayList<>(entities.size());
+        for (ChatMessage entity : entities) {
+            messages.add(ChatMessageDTO.builder()
+                    .id(entity.getSeq())
+                    .roomId(entity.getRoomId())
+                    .userId(entity.getUserId())
+                    .username(entity.getUsername())
+                    .content(entity.getContent())
+                    .type(entity.getType())
+                    .timestamp(entity.getSentAt())
+                    .cursor(String.valueOf(entity.getSeq()))
+                    .build());
+        }
+        return messages;
+    }
+}
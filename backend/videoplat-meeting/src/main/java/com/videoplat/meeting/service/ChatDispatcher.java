@@ -0,0 +1,314 @@
+package com.videoplat.meeting.service;
+
+import com.videoplat.common.util.MpscRingBuffer;
+import com.videoplat.meeting.dto.ChatMessageDTO;
+import com.videoplat.meeting.websocket.RoomEventRelay;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 聊天消息分发管道
+ *
+ * HTTP 线程只负责分配序号并将消息放入环形缓冲区，随即返回；
+ * 消费线程按微批次完成 Redis 持久化、归档提交和会议室推送。
+ * 会议室按哈希固定映射到分片，同一会议室的消息由同一个消费线程处理。
+ * 序号在 HTTP 线程上分配，入队顺序可能与序号顺序不同：消费线程为每个会议室暂存消息，
+ * 只在序号连续时放行；出现缺口时最多等待 reorder-window，缺口仍未补齐（序号属于其他节点，
+ * 或分配序号后入队失败）则跳过缺口继续处理，保证本节点的持久化和推送都按序号递增
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Slf4j
+@Component
+public class ChatDispatcher {
+
+    // 消费线程空闲时的最长休眠时间
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    // 没有暂存消息的会议室超过该时间未收到消息时移除其排序状态
+    private static final long ROOM_IDLE_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final ChatHistoryStore chatHistoryStore;
+    private final ChatArchiveService chatArchiveService;
+    private final RoomEventRelay roomEventRelay;
+    private final MeterRegistry meterRegistry;
+
+    private final Timer deliveryTimer;
+    private final DistributionSummary batchSizeSummary;
+    private final Counter rejectedCounter;
+    private final Counter gapSkippedCounter;
+
+    // 分片数（消费线程数）
+    @Value("${app.chat.dispatch.shards:4}")
+    private int shardCount;
+
+    // 每个分片的环形缓冲区容量
+    @Value("${app.chat.dispatch.ring-capacity:4096}")
+    private int ringCapacity;
+
+    // 单个微批次的最大消息数
+    @Value("${app.chat.dispatch.batch-size:64}")
+    private int batchSize;
+
+    // 序号出现缺口时最多等待的时间（毫秒）
+    @Value("${app.chat.dispatch.reorder-window:50}")
+    private long reorderWindowMillis;
+
+    private Shard[] shards;
+    private volatile boolean running;
+
+    public ChatDispatcher(ChatHistoryStore chatHistoryStore,
+                          ChatArchiveService chatArchiveService,
+                          RoomEventRelay roomEventRelay,
+                          MeterRegistry meterRegistry) {
+        this.chatHistoryStore = chatHistoryStore;
+        this.chatArchiveService = chatArchiveService;
+        this.roomEventRelay = roomEventRelay;
+        this.meterRegistry = meterRegistry;
+        this.deliveryTimer = Timer.builder("chat.dispatch.latency")
+                .description("聊天消息从接收到推送入队的耗时")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("chat.dispatch.batch.size")
+                .description("每个微批次处理的消息数")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("chat.dispatch.rejected")
+                .description("因环形缓冲区已满被拒绝的消息数")
+                .register(meterRegistry);
+        this.gapSkippedCounter = Counter.builder("chat.dispatch.gap.skipped")
+                .description("等待超过 reorder-window 后被跳过的序号缺口数")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            Shard shard = new Shard(new MpscRingBuffer<>(ringCapacity));
+            shard.consumer = new Thread(() -> runConsumer(shard), "chat-dispatch-" + i);
+            shard.consumer.setDaemon(true);
+            shards[i] = shard;
+            shard.consumer.start();
+        }
+        Gauge.builder("chat.dispatch.queue.depth", this, dispatcher -> dispatcher.pendingCount())
+                .description("等待分发的聊天消息数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 停止消费线程，处理完缓冲区中剩余的消息
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Shard shard : shards) {
+            LockSupport.unpark(shard.consumer);
+        }
+        for (Shard shard : shards) {
+            shard.consumer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * 提交已分配序号的消息
+     *
+     * @param message 聊天消息
+     * @return false 表示缓冲区已满，消息未被接收
+     */
+    public boolean submit(ChatMessageDTO message) {
+        Shard shard = shards[Math.floorMod(message.getRoomId().hashCode(), shards.length)];
+        if (!shard.ring.offer(new PendingMessage(message, System.nanoTime()))) {
+            rejectedCounter.increment();
+            return false;
+        }
+        if (shard.parked) {
+            LockSupport.unpark(shard.consumer);
+        }
+        return true;
+    }
+
+    // 所有分片中待处理的消息数
+    private int pendingCount() {
+        int total = 0;
+        for (Shard shard : shards) {
+            total += shard.ring.size();
+        }
+        return total;
+    }
+
+    // 消费线程：批量读取后按会议室暂存，放行序号连续的消息；缓冲区为空时休眠到下一个缺口的等待期限
+    private void runConsumer(Shard shard) {
+        long reorderWindowNanos = TimeUnit.MILLISECONDS.toNanos(reorderWindowMillis);
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        while (true) {
+            if (shard.ring.drainTo(batch, batchSize) > 0) {
+                hold(shard, batch);
+                batch.clear();
+                release(shard, reorderWindowNanos, false);
+                continue;
+            }
+            if (!running) {
+                // 停止时不再等待缺口，按序号处理所有暂存的消息
+                release(shard, reorderWindowNanos, true);
+                break;
+            }
+            long waitNanos = release(shard, reorderWindowNanos, false);
+            shard.parked = true;
+            // 设置休眠标记后再检查一次，避免错过生产者的唤醒
+            if (shard.ring.size() == 0 && running) {
+                LockSupport.parkNanos(this, Math.min(IDLE_PARK_NANOS, waitNanos));
+            }
+            shard.parked = false;
+        }
+    }
+
+    // 按会议室暂存读取到的消息
+    private void hold(Shard shard, List<PendingMessage> batch) {
+        long now = System.nanoTime();
+        for (PendingMessage pending : batch) {
+            String roomId = pending.message.getRoomId();
+            RoomOrder order = shard.rooms.computeIfAbsent(roomId, key -> new RoomOrder());
+            order.held.put(pending.message.getId(), pending);
+            order.lastHeldAt = now;
+            shard.waitingRooms.add(roomId);
+        }
+    }
+
+    /**
+     * 放行各会议室中可以处理的消息并处理
+     *
+     * 序号等于期望值的消息立即放行；小于期望值的是缺口已被跳过后才到达的消息，也立即放行；
+     * 大于期望值时等待到该消息入队后的 reorder-window 为止
+     *
+     * @return 距最近一个缺口等待期限的纳秒数，没有缺口时为 Long.MAX_VALUE
+     */
+    private long release(Shard shard, long reorderWindowNanos, boolean force) {
+        long now = System.nanoTime();
+        long waitNanos = Long.MAX_VALUE;
+        Map<String, List<PendingMessage>> ready = new LinkedHashMap<>();
+
+        Iterator<String> waiting = shard.waitingRooms.iterator();
+        while (waiting.hasNext()) {
+            String roomId = waiting.next();
+            RoomOrder order = shard.rooms.get(roomId);
+            while (!order.held.isEmpty()) {
+                Map.Entry<Long, PendingMessage> first = order.held.firstEntry();
+                long seq = first.getKey();
+                if (seq > order.nextSeq && !force) {
+                    long remaining = first.getValue().enqueuedAt + reorderWindowNanos - now;
+                    if (remaining > 0) {
+                        waitNanos = Math.min(waitNanos, remaining);
+                        break;
+                    }
+                    gapSkippedCounter.increment();
+                }
+                order.held.pollFirstEntry();
+                order.nextSeq = Math.max(order.nextSeq, seq + 1);
+                ready.computeIfAbsent(roomId, key -> new ArrayList<>()).add(first.getValue());
+            }
+            if (order.held.isEmpty()) {
+                waiting.remove();
+            }
+        }
+
+        if (now - shard.lastPrunedAt > ROOM_IDLE_NANOS) {
+            shard.rooms.values().removeIf(order -> order.held.isEmpty() && now - order.lastHeldAt > ROOM_IDLE_NANOS);
+            shard.lastPrunedAt = now;
+        }
+
+        if (!ready.isEmpty()) {
+            process(ready);
+        }
+        return waitNanos;
+    }
+
+    // 处理放行的消息：按会议室持久化，然后提交归档并推送，同一会议室内按序号顺序
+    private void process(Map<String, List<PendingMessage>> byRoom) {
+        int total = 0;
+        for (List<PendingMessage> pendings : byRoom.values()) {
+            total += pendings.size();
+        }
+        batchSizeSummary.record(total);
+
+        for (Map.Entry<String, List<PendingMessage>> entry : byRoom.entrySet()) {
+            String roomId = entry.getKey();
+            List<PendingMessage> pendings = entry.getValue();
+
+            List<ChatMessageDTO> messages = new ArrayList<>(pendings.size());
+            for (PendingMessage pending : pendings) {
+                messages.add(pending.message);
+            }
+
+            try {
+                chatHistoryStore.appendAll(roomId, messages);
+            } catch (Exception e) {
+                log.error("保存会议室 {} 的聊天消息失败，共 {} 条", roomId, messages.size(), e);
+            }
+
+            for (PendingMessage pending : pendings) {
+                chatArchiveService.archive(pending.message);
+                try {
+                    roomEventRelay.sendToRoom(roomId, pending.message);
+                } catch (Exception e) {
+                    log.error("推送会议室 {} 的聊天消息失败", roomId, e);
+                }
+                deliveryTimer.record(System.nanoTime() - pending.enqueuedAt, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    // 分片：一个环形缓冲区和一个消费线程，排序状态只由消费线程访问
+    private static class Shard {
+        final MpscRingBuffer<PendingMessage> ring;
+        final Map<String, RoomOrder> rooms = new HashMap<>();
+        final Set<String> waitingRooms = new LinkedHashSet<>();
+        long lastPrunedAt = System.nanoTime();
+        volatile Thread consumer;
+        volatile boolean parked;
+
+        Shard(MpscRingBuffer<PendingMessage> ring) {
+            this.ring = ring;
+        }
+    }
+
+    // 会议室的排序状态：期望的下一个序号和暂存的消息
+    private static class RoomOrder {
+        final TreeMap<Long, PendingMessage> held = new TreeMap<>();
+        // 序号从 1 开始；节点重启后首条消息最多等待一个 reorder-window
+        long nextSeq = 1;
+        long lastHeldAt;
+    }
+
+    // 待分发消息及其入队时间
+    private static class PendingMessage {
+        final ChatMessageDTO message;
+        final long enqueuedAt;
+
+        PendingMessage(ChatMessageDTO message, long enqueuedAt) {
+            this.message = message;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
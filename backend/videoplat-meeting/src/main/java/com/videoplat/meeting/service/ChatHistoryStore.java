@@ -0,0 +1,74 @@
+package com.videoplat.meeting.service;
+
+import com.videoplat.meeting.dto.ChatMessageDTO;
+
+import java.util.List;
+
+/**
+ * 聊天历史存储
+ *
+ * 通过 app.chat.store 选择实现：stream（Redis Streams，默认）、list（Redis 列表）或 memory（进程内，单节点模式）。
+ * 每条消息在会议室内分配单调递增的序号作为消息 ID，游标即该序号
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+public interface ChatHistoryStore {
+
+    /**
+     * 为会议室分配下一个消息序号
+     *
+     * @param roomId 会议室 ID
+     * @return 新序号
+     */
+    long nextSequence(String roomId);
+
+    /**
+     * 批量保存同一会议室的聊天消息
+     *
+     * 消息已通过 {@link #nextSequence(String)} 分配序号并按序号升序排列
+     *
+     * @param roomId 会议室 ID
+     * @param messages 聊天消息列表
+     */
+    void appendAll(String roomId, List<ChatMessageDTO> messages);
+
+    /**
+     * 获取会议室最新的消息序号
+     *
+     * @param roomId 会议室 ID
+     * @return 最新序号，尚无消息时返回 0
+     */
+    long latestSequence(String roomId);
+
+    /**
+     * 按游标查询聊天消息，结果按时间正序排列
+     *
+     * 只指定 after 时返回该游标之后最早的 limit 条消息；
+     * 其他情况返回 before（未指定则为最新）之前最近的 limit 条消息
+     *
+     * @param roomId 会议室 ID
+     * @param after 起始游标（不包含），可为空
+     * @param before 结束游标（不包含），可为空
+     * @param limit 最多返回的消息数
+     * @return 聊天消息列表
+     */
+    List<ChatMessageDTO> query(String roomId, String after, String before, int limit);
+
+    /**
+     * 清除会议室聊天历史
+     *
+     * 只清除存储中的最近消息，并将当前最新序号记为可见起点；归档表中的记录保留，查询时按可见起点过滤
+     *
+     * @param roomId 会议室 ID
+     */
+    void clear(String roomId);
+
+    /**
+     * 获取会议室最近一次清除聊天历史时的序号，不大于该序号的消息不再返回给客户端
+     *
+     * @param roomId 会议室 ID
+     * @return 清除时的序号，从未清除时返回 0
+     */
+    long clearedSequence(String roomId);
+}
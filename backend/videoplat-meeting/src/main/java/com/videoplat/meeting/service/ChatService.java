@@ -1,17 +1,15 @@
 package com.videoplat.meeting.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.videoplat.common.exception.RateLimitedException;
 import com.videoplat.meeting.dto.ChatMessageDTO;
-import com.videoplat.meeting.websocket.WebSocketHandler;
+import com.videoplat.meeting.dto.ChatSyncResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 /**
  * 聊天服务
@@ -26,13 +24,14 @@ import java.util.concurrent.TimeUnit;
 @RequiredArgsConstructor
 public class ChatService {
 
-    private final WebSocketHandler webSocketHandler;
-    private final RedisTemplate<String, Object> redisTemplate;
-    private final ObjectMapper objectMapper;
+    private final ChatHistoryStore chatHistoryStore;
+    private final ChatDispatcher chatDispatcher;
+    private final ChatArchiveService chatArchiveService;
 
-    private static final String CHAT_HISTORY_KEY_PREFIX = "chat:room:";
-    private static final int CHAT_HISTORY_EXPIRE_HOURS = 24;
-    private static final int MAX_CHAT_HISTORY_SIZE = 100;
+    /**
+     * 单次查询最多返回的消息数
+     */
+    public static final int MAX_PAGE_SIZE = 100;
 
     /**
      * 发送聊天消息到会议室
@@ -47,7 +46,6 @@ public class ChatService {
         try {
             // 创建消息对象
             ChatMessageDTO message = ChatMessageDTO.builder()
-                    .id(System.currentTimeMillis())
                     .roomId(roomId)
                     .userId(userId)
                     .username(username)
@@ -56,15 +54,17 @@ public class ChatService {
                     .timestamp(LocalDateTime.now())
                     .build();
 
-            // 存储到 Redis（保留最近的消息历史）
-            saveChatHistory(roomId, message);
-
-            // 广播消息给会议室所有成员
-            broadcastToRoom(roomId, message);
+            // 分配序号后交给分发管道，持久化和广播在消费线程中完成
+            assignSequence(roomId, message);
+            if (!chatDispatcher.submit(message)) {
+                throw new RateLimitedException("消息发送过于频繁，请稍后重试", 1);
+            }
 
             log.info("用户 {} 在会议室 {} 发送消息", username, roomId);
             return message;
 
+        } catch (RateLimitedException e) {
+            throw e;
         } catch (Exception e) {
             log.error("发送聊天消息失败", e);
             throw new RuntimeException("发送消息失败");
@@ -80,7 +80,6 @@ public class ChatService {
     public void sendSystemMessage(String roomId, String content) {
         try {
             ChatMessageDTO message = ChatMessageDTO.builder()
-                    .id(System.currentTimeMillis())
                     .roomId(roomId)
                     .userId(0L)
                     .username("系统")
@@ -89,8 +88,10 @@ public class ChatService {
                     .timestamp(LocalDateTime.now())
                     .build();
 
-            saveChatHistory(roomId, message);
-            broadcastToRoom(roomId, message);
+            assignSequence(roomId, message);
+            if (!chatDispatcher.submit(message)) {
+                log.warn("分发队列已满，会议室 {} 的系统消息被丢弃", roomId);
+            }
 
         } catch (Exception e) {
             log.error("发送系统消息失败", e);
@@ -100,27 +101,18 @@ public class ChatService {
     /**
      * 获取会议室聊天历史
      *
+     * 优先从 Redis 读取，超出 Redis 保留范围的部分从归档表补齐
+     *
      * @param roomId 会议室 ID
-     * @return 聊天消息列表
+     * @param after 起始游标（不包含），可为空
+     * @param before 结束游标（不包含），可为空
+     * @param limit 最多返回的消息数
+     * @return 聊天消息列表，按时间正序排列
      */
-    public List<ChatMessageDTO> getChatHistory(String roomId) {
+    public List<ChatMessageDTO> getChatHistory(String roomId, String after, String before, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
         try {
-            String key = CHAT_HISTORY_KEY_PREFIX + roomId;
-            List<Object> messages = redisTemplate.opsForList().range(key, 0, -1);
-
-            if (messages == null || messages.isEmpty()) {
-                return new ArrayList<>();
-            }
-
-            List<ChatMessageDTO> chatMessages = new ArrayList<>();
-            for (Object msg : messages) {
-                if (msg instanceof ChatMessageDTO) {
-                    chatMessages.add((ChatMessageDTO) msg);
-                }
-            }
-
-            return chatMessages;
-
+            return loadMessages(roomId, after, before, pageSize);
         } catch (Exception e) {
             log.error("获取聊天历史失败", e);
             return new ArrayList<>();
@@ -128,61 +120,104 @@ public class ChatService {
     }
 
     /**
-     * 保存聊天消息到 Redis
+     * 获取指定序号之后的消息，用于客户端断线重连后补齐缺口
      *
      * @param roomId 会议室 ID
-     * @param message 聊天消息
+     * @param since 客户端已收到的最大序号
+     * @param limit 最多返回的消息数
+     * @return 增量同步结果
      */
-    private void saveChatHistory(String roomId, ChatMessageDTO message) {
-        try {
-            String key = CHAT_HISTORY_KEY_PREFIX + roomId;
+    public ChatSyncResponse syncMessages(String roomId, long since, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long latestSeq = chatHistoryStore.latestSequence(roomId);
+        List<ChatMessageDTO> messages = latestSeq > since
+                ? loadMessages(roomId, String.valueOf(Math.max(since, 0L)), null, pageSize)
+                : new ArrayList<>();
+
+        // 返回的第一条消息与起始序号不连续，说明中间的消息已被裁剪且未归档
+        long firstSeq = messages.isEmpty() ? latestSeq + 1 : messages.get(0).getId();
+        boolean truncated = latestSeq > since && firstSeq > since + 1;
+        long lastSeq = messages.isEmpty() ? since : messages.get(messages.size() - 1).getId();
+
+        return ChatSyncResponse.builder()
+                .roomId(roomId)
+                .messages(messages)
+                .latestSeq(latestSeq)
+                .hasMore(lastSeq < latestSeq && !messages.isEmpty())
+                .truncated(truncated)
+                .build();
+    }
 
-            // 添加消息到列表
-            redisTemplate.opsForList().rightPush(key, message);
+    /**
+     * 按游标加载消息，Redis 中的消息不足或不连续时从归档表补齐
+     *
+     * @param roomId 会议室 ID
+     * @param after 起始游标（不包含），可为空
+     * @param before 结束游标（不包含），可为空
+     * @param limit 最多返回的消息数
+     * @return 聊天消息列表，按序号正序排列
+     */
+    private List<ChatMessageDTO> loadMessages(String roomId, String after, String before, int limit) {
+        // 清除历史之前的消息不再可见，归档表中仍保留
+        long clearedSeq = chatHistoryStore.clearedSequence(roomId);
+        if (after != null && Long.parseLong(after) < clearedSeq) {
+            after = String.valueOf(clearedSeq);
+        }
+        List<ChatMessageDTO> hot = chatHistoryStore.query(roomId, after, before, limit);
+        if (after == null && clearedSeq > 0) {
+            hot.removeIf(message -> message.getId() <= clearedSeq);
+        }
+        if (!chatArchiveService.isEnabled()) {
+            return hot;
+        }
 
-            // 限制列表大小
-            Long size = redisTemplate.opsForList().size(key);
-            if (size != null && size > MAX_CHAT_HISTORY_SIZE) {
-                redisTemplate.opsForList().trim(key, size - MAX_CHAT_HISTORY_SIZE, -1);
-            }
+        long afterSeq = after != null ? Long.parseLong(after) : clearedSeq;
+        long beforeSeq = before != null ? Long.parseLong(before) : Long.MAX_VALUE;
+        // Redis 中最早的消息与起始序号连续时无需查询归档表
+        long hotOldest = hot.isEmpty() ? beforeSeq : hot.get(0).getId();
+        if (hotOldest <= afterSeq + 1) {
+            return hot;
+        }
 
-            // 设置过期时间
-            redisTemplate.expire(key, CHAT_HISTORY_EXPIRE_HOURS, TimeUnit.HOURS);
+        List<ChatMessageDTO> merged;
+        if (after != null && before == null) {
+            // 正序同步：缺口位于起始序号与 Redis 最早消息之间
+            merged = new ArrayList<>(chatArchiveService.findEarliest(roomId, afterSeq, hotOldest, limit));
+            merged.addAll(hot);
+            return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+        }
 
-        } catch (Exception e) {
-            log.error("保存聊天历史失败", e);
+        // 向前翻页：Redis 不足一页时用归档表中更早的消息补齐
+        if (hot.size() >= limit) {
+            return hot;
         }
+        merged = new ArrayList<>(chatArchiveService.findLatest(roomId, afterSeq, hotOldest, limit - hot.size()));
+        merged.addAll(hot);
+        return merged;
     }
 
     /**
-     * 广播消息到会议室所有成员
+     * 为消息分配会议室内的序号
      *
      * @param roomId 会议室 ID
      * @param message 聊天消息
      */
-    private void broadcastToRoom(String roomId, ChatMessageDTO message) {
-        try {
-            // 将消息转换为 JSON
-            String jsonMessage = objectMapper.writeValueAsString(message);
-
-            // 广播给所有在线用户（实际应该只发给该会议室的成员）
-            // TODO: 维护会议室成员列表，只发送给会议室内的用户
-            webSocketHandler.broadcastMessage(jsonMessage);
-
-        } catch (Exception e) {
-            log.error("广播消息失败", e);
-        }
+    private void assignSequence(String roomId, ChatMessageDTO message) {
+        long seq = chatHistoryStore.nextSequence(roomId);
+        message.setId(seq);
+        message.setCursor(String.valueOf(seq));
     }
 
     /**
      * 清除会议室聊天历史
      *
+     * 只清除最近消息的存储并记录可见起点，之后的查询不再返回更早的消息；归档表中的记录保留
+     *
      * @param roomId 会议室 ID
      */
     public void clearChatHistory(String roomId) {
         try {
-            String key = CHAT_HISTORY_KEY_PREFIX + roomId;
-            redisTemplate.delete(key);
+            chatHistoryStore.clear(roomId);
             log.info("清除会议室 {} 的聊天历史", roomId);
         } catch (Exception e) {
             log.error("清除聊天历史失败", e);
@@ -0,0 +1,373 @@
+package com.videoplat.meeting.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.videoplat.meeting.dto.ChatMessageDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程内聊天历史存储（单节点模式）
+ *
+ * 每个会议室一个固定容量的环形缓冲区，只保留最近的消息，完整记录仍由归档服务写入 PostgreSQL。
+ * 序号在进程内递增；会议室首次写入时从归档表中的最大序号继续，避免异常退出后序号重复。
+ * 只读的查询（最新序号、可见起点）不创建会议室条目，未知会议室直接查归档表。
+ * 24 小时内没有新消息的会议室（包括已结束的会议室）整个移出：启用归档时序号可以从归档表恢复，
+ * 只有清除过历史的会议室保留可见起点；未启用归档时只清空缓冲区、保留序号。
+ * 停止时将序号和缓冲区内容写入快照文件，启动时恢复
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.chat.store", havingValue = "memory")
+public class InMemoryChatHistoryStore implements ChatHistoryStore {
+
+    private static final int MAX_CHAT_HISTORY_SIZE = 100;
+    private static final long CHAT_HISTORY_EXPIRE_MILLIS = TimeUnit.HOURS.toMillis(24);
+    private static final String SNAPSHOT_FILE = "chat-history.json";
+
+    private final ChatArchiveService chatArchiveService;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, RoomHistory> rooms = new ConcurrentHashMap<>();
+
+    // 已移出的会议室中清除过历史的可见起点，会议室再次写入时恢复
+    private final Map<String, Long> evictedClearedSequences = new ConcurrentHashMap<>();
+
+    // 快照目录
+    @Value("${app.standalone.snapshot-dir:./data/standalone}")
+    private String snapshotDir;
+
+    public InMemoryChatHistoryStore(ChatArchiveService chatArchiveService, ObjectMapper objectMapper) {
+        this.chatArchiveService = chatArchiveService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 从快照恢复
+     */
+    @PostConstruct
+    public void restore() {
+        File file = Paths.get(snapshotDir, SNAPSHOT_FILE).toFile();
+        if (!file.exists()) {
+            return;
+        }
+        try {
+            Snapshot snapshot = objectMapper.readValue(file, Snapshot.class);
+            for (Map.Entry<String, RoomSnapshot> entry : snapshot.getRooms().entrySet()) {
+                RoomSnapshot room = entry.getValue();
+                RoomHistory history = new RoomHistory(room.getSequence(), room.getClearedSequence(), room.getLastWriteAt());
+                for (ChatMessageDTO message : room.getMessages()) {
+                    history.append(message);
+                }
+                rooms.put(entry.getKey(), history);
+            }
+            evictedClearedSequences.putAll(snapshot.getClearedSequences());
+            log.info("已从快照恢复 {} 个会议室的聊天历史", rooms.size());
+        } catch (Exception e) {
+            // 快照损坏时从空状态启动，序号仍会从归档表继续
+            log.error("读取聊天历史快照失败: {}", file, e);
+        }
+    }
+
+    /**
+     * 写入快照：先写临时文件再替换，避免写到一半时退出导致快照损坏
+     */
+    @PreDestroy
+    public void snapshot() {
+        Map<String, RoomSnapshot> snapshotRooms = new HashMap<>();
+        rooms.forEach((roomId, history) -> snapshotRooms.put(roomId, history.toSnapshot()));
+        try {
+            Path dir = Paths.get(snapshotDir);
+            Files.createDirectories(dir);
+            Path tmp = dir.resolve(SNAPSHOT_FILE + ".tmp");
+            objectMapper.writeValue(tmp.toFile(), new Snapshot(snapshotRooms, new HashMap<>(evictedClearedSequences)));
+            Files.move(tmp, dir.resolve(SNAPSHOT_FILE),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("已保存 {} 个会议室的聊天历史快照", snapshotRooms.size());
+        } catch (Exception e) {
+            log.error("保存聊天历史快照失败", e);
+        }
+    }
+
+    @Override
+    public long nextSequence(String roomId) {
+        while (true) {
+            RoomHistory history = room(roomId);
+            synchronized (history) {
+                // 期间被移出时重新创建，序号从归档表继续
+                if (!history.evicted) {
+                    return history.nextSequence();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void appendAll(String roomId, List<ChatMessageDTO> messages) {
+        while (true) {
+            RoomHistory history = room(roomId);
+            synchronized (history) {
+                if (history.evicted) {
+                    continue;
+                }
+                for (ChatMessageDTO message : messages) {
+                    message.setCursor(String.valueOf(message.getId()));
+                    history.append(message);
+                }
+                return;
+            }
+        }
+    }
+
+    @Override
+    public long latestSequence(String roomId) {
+        RoomHistory history = rooms.get(roomId);
+        return history != null ? history.latestSequence() : archivedSequence(roomId);
+    }
+
+    @Override
+    public List<ChatMessageDTO> query(String roomId, String after, String before, int limit) {
+        RoomHistory history = rooms.get(roomId);
+        if (history == null) {
+            return new ArrayList<>();
+        }
+        Long afterId = after != null ? Long.parseLong(after) : null;
+        Long beforeId = before != null ? Long.parseLong(before) : null;
+        return history.query(afterId, beforeId, limit);
+    }
+
+    @Override
+    public void clear(String roomId) {
+        // 保留序号，清除后新消息的序号仍然递增，客户端的同步游标不会失效
+        RoomHistory history = rooms.get(roomId);
+        if (history != null) {
+            synchronized (history) {
+                if (!history.evicted) {
+                    history.markCleared();
+                    return;
+                }
+            }
+        }
+        // 不在内存中的会议室只需记录可见起点，不创建条目
+        long archivedSequence = archivedSequence(roomId);
+        if (archivedSequence > 0) {
+            evictedClearedSequences.merge(roomId, archivedSequence, Math::max);
+        }
+    }
+
+    @Override
+    public long clearedSequence(String roomId) {
+        RoomHistory history = rooms.get(roomId);
+        return history != null ? history.clearedSequence() : evictedClearedSequences.getOrDefault(roomId, 0L);
+    }
+
+    /**
+     * 移出 24 小时内没有新消息的会议室（与 Redis 实现的过期时间一致）
+     *
+     * 启用归档时整个条目移出，序号在再次写入时从归档表恢复，清除过历史的会议室单独保留可见起点；
+     * 未启用归档时无法恢复序号，只清空缓冲区
+     */
+    @Scheduled(fixedRate = 3600000)
+    public void expireIdleRooms() {
+        long expireBefore = System.currentTimeMillis() - CHAT_HISTORY_EXPIRE_MILLIS;
+        boolean evict = chatArchiveService.isEnabled();
+        int evicted = 0;
+        for (Map.Entry<String, RoomHistory> entry : rooms.entrySet()) {
+            RoomHistory history = entry.getValue();
+            synchronized (history) {
+                if (!history.isIdleSince(expireBefore)) {
+                    continue;
+                }
+                if (!evict) {
+                    history.clear();
+                    continue;
+                }
+                history.evicted = true;
+                rooms.remove(entry.getKey(), history);
+                if (history.clearedSequence() > 0) {
+                    evictedClearedSequences.put(entry.getKey(), history.clearedSequence());
+                }
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            log.info("移出 {} 个长时间没有新消息的会议室聊天历史", evicted);
+        }
+    }
+
+    // 获取会议室历史，首次写入时从归档表的最大序号继续
+    private RoomHistory room(String roomId) {
+        RoomHistory history = rooms.get(roomId);
+        if (history != null) {
+            return history;
+        }
+        long clearedSequence = evictedClearedSequences.getOrDefault(roomId, 0L);
+        long sequence = Math.max(archivedSequence(roomId), clearedSequence);
+        RoomHistory created = new RoomHistory(sequence, clearedSequence, System.currentTimeMillis());
+        history = rooms.putIfAbsent(roomId, created);
+        if (history != null) {
+            return history;
+        }
+        evictedClearedSequences.remove(roomId, clearedSequence);
+        return created;
+    }
+
+    // 归档表中该会议室的最大序号，没有归档消息时为 0
+    private long archivedSequence(String roomId) {
+        List<ChatMessageDTO> latest = chatArchiveService.findLatest(roomId, 0L, Long.MAX_VALUE, 1);
+        return latest.isEmpty() ? 0L : latest.get(0).getId();
+    }
+
+    /**
+     * 单个会议室的序号和环形缓冲区，缓冲区内按序号升序排列
+     */
+    private static class RoomHistory {
+
+        private final ChatMessageDTO[] ring = new ChatMessageDTO[MAX_CHAT_HISTORY_SIZE];
+        private long sequence;
+        private long clearedSequence;
+        private long lastWriteAt;
+        private int start;
+        private int size;
+
+        // 已从 rooms 中移出，持有该对象的调用方需要重新获取
+        private boolean evicted;
+
+        RoomHistory(long sequence, long clearedSequence, long lastWriteAt) {
+            this.sequence = sequence;
+            this.clearedSequence = clearedSequence;
+            this.lastWriteAt = lastWriteAt;
+        }
+
+        synchronized long nextSequence() {
+            return ++sequence;
+        }
+
+        synchronized long latestSequence() {
+            return sequence;
+        }
+
+        // 追加消息；不同线程的提交顺序可能与序号顺序不同，此时插入到对应位置
+        synchronized void append(ChatMessageDTO message) {
+            long seq = message.getId();
+            sequence = Math.max(sequence, seq);
+            lastWriteAt = System.currentTimeMillis();
+            if (size == ring.length) {
+                if (seq <= get(0).getId()) {
+                    return;
+                }
+                // 缓冲区已满，覆盖最早的消息
+                ring[start] = null;
+                start = (start + 1) % ring.length;
+                size--;
+            }
+            int pos = size;
+            while (pos > 0 && get(pos - 1).getId() > seq) {
+                set(pos, get(pos - 1));
+                pos--;
+            }
+            set(pos, message);
+            size++;
+        }
+
+        synchronized List<ChatMessageDTO> query(Long afterId, Long beforeId, int limit) {
+            List<ChatMessageDTO> matched = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                ChatMessageDTO message = get(i);
+                if (afterId != null && message.getId() <= afterId) {
+                    continue;
+                }
+                if (beforeId != null && message.getId() >= beforeId) {
+                    continue;
+                }
+                matched.add(message);
+            }
+            if (matched.size() <= limit) {
+                return matched;
+            }
+            // 只指定 after 时取最早的部分，否则取最新的部分
+            return afterId != null && beforeId == null
+                    ? new ArrayList<>(matched.subList(0, limit))
+                    : new ArrayList<>(matched.subList(matched.size() - limit, matched.size()));
+        }
+
+        synchronized long clearedSequence() {
+            return clearedSequence;
+        }
+
+        // 清除缓冲区并记录可见起点
+        synchronized void markCleared() {
+            clearedSequence = sequence;
+            clear();
+        }
+
+        synchronized void clear() {
+            Arrays.fill(ring, null);
+            start = 0;
+            size = 0;
+        }
+
+        synchronized boolean isIdleSince(long timestamp) {
+            return lastWriteAt < timestamp;
+        }
+
+        synchronized RoomSnapshot toSnapshot() {
+            return new RoomSnapshot(sequence, clearedSequence, lastWriteAt, query(null, null, size));
+        }
+
+        private ChatMessageDTO get(int index) {
+            return ring[(start + index) % ring.length];
+        }
+
+        private void set(int index, ChatMessageDTO message) {
+            ring[(start + index) % ring.length] = message;
+        }
+    }
+
+    /**
+     * 快照文件内容
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class Snapshot {
+        private Map<String, RoomSnapshot> rooms = new HashMap<>();
+        private Map<String, Long> clearedSequences = new HashMap<>();
+    }
+
+    /**
+     * 单个会议室的快照
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class RoomSnapshot {
+        private long sequence;
+        private long clearedSequence;
+        private long lastWriteAt;
+        private List<ChatMessageDTO> messages = new ArrayList<>();
+    }
+}
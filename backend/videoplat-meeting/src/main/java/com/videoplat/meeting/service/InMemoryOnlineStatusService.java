@@ -0,0 +1,166 @@
+package com.videoplat.meeting.service;
+
+import com.videoplat.common.util.HashedTimingWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程内在线状态服务（单节点模式）
+ *
+ * 在线用户保存在并发映射中，记录最近一次心跳时间。每个用户在时间轮上挂一个过期检查，
+ * 到期时如果期间有过心跳则按剩余时间重新挂上，否则移除该用户；心跳本身只更新时间戳。
+ * 连接在重启后都会断开，因此在线状态不做持久化
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "videoplat.mode", havingValue = "standalone")
+public class InMemoryOnlineStatusService implements OnlineStatusService {
+
+    private final Map<Long, Presence> onlineUsers = new ConcurrentHashMap<>();
+
+    // 存活窗口：超过该时间没有心跳的用户视为离线
+    @Value("${app.presence.liveness-window:PT5M}")
+    private Duration livenessWindow;
+
+    private HashedTimingWheel timingWheel;
+
+    @PostConstruct
+    public void start() {
+        // 1 秒一格、512 格，一圈约 8.5 分钟，存活窗口内的过期检查最多绕一圈
+        timingWheel = new HashedTimingWheel("presence-wheel", 1, TimeUnit.SECONDS, 512);
+        timingWheel.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        timingWheel.stop();
+    }
+
+    @Override
+    public void setUserOnline(Long userId) {
+        touch(userId);
+        log.info("用户 {} 已设置为在线状态", userId);
+    }
+
+    @Override
+    public void setUserOffline(Long userId) {
+        Presence presence = onlineUsers.remove(userId);
+        if (presence != null && presence.expiry != null) {
+            presence.expiry.cancel();
+        }
+        log.info("用户 {} 已设置为离线状态", userId);
+    }
+
+    @Override
+    public boolean isUserOnline(Long userId) {
+        Presence presence = onlineUsers.get(userId);
+        return presence != null && presence.lastSeen >= windowStart();
+    }
+
+    @Override
+    public List<String> getOnlineUsers(long offset, long limit) {
+        long windowStart = windowStart();
+        return onlineUsers.entrySet().stream()
+                .filter(entry -> entry.getValue().lastSeen >= windowStart)
+                .sorted(Comparator.comparingLong((Map.Entry<Long, Presence> entry) -> entry.getValue().lastSeen).reversed())
+                .skip(offset)
+                .limit(limit)
+                .map(entry -> entry.getKey().toString())
+                .toList();
+    }
+
+    @Override
+    public long getOnlineUserCount() {
+        long windowStart = windowStart();
+        return onlineUsers.values().stream()
+                .filter(presence -> presence.lastSeen >= windowStart)
+                .count();
+    }
+
+    @Override
+    public void refreshUserOnlineStatus(Long userId) {
+        // 与集群模式一致：心跳只更新仍在线的用户，离线之后到达的心跳不会把用户重新加入
+        Presence presence = onlineUsers.get(userId);
+        if (presence == null) {
+            return;
+        }
+        synchronized (presence) {
+            if (onlineUsers.get(userId) == presence) {
+                presence.lastSeen = System.currentTimeMillis();
+            }
+        }
+    }
+
+    @Override
+    public void clearAllOnlineStatus() {
+        for (Presence presence : onlineUsers.values()) {
+            if (presence.expiry != null) {
+                presence.expiry.cancel();
+            }
+        }
+        onlineUsers.clear();
+        log.info("已清理所有在线状态");
+    }
+
+    // 更新心跳时间，新加入的用户挂上过期检查
+    private void touch(Long userId) {
+        while (true) {
+            Presence presence = onlineUsers.computeIfAbsent(userId, id -> new Presence());
+            synchronized (presence) {
+                // 记录可能刚被过期检查移除，此时重新创建
+                if (onlineUsers.get(userId) != presence) {
+                    continue;
+                }
+                presence.lastSeen = System.currentTimeMillis();
+                if (presence.expiry == null) {
+                    scheduleExpiry(userId, presence, livenessWindow.toMillis());
+                }
+                return;
+            }
+        }
+    }
+
+    // 过期检查：期间有心跳则按剩余时间重新挂上，否则移除
+    private void checkExpiry(Long userId, Presence presence) {
+        synchronized (presence) {
+            long remaining = presence.lastSeen + livenessWindow.toMillis() - System.currentTimeMillis();
+            if (remaining > 0) {
+                scheduleExpiry(userId, presence, remaining);
+                return;
+            }
+            presence.expiry = null;
+            if (onlineUsers.remove(userId, presence)) {
+                log.debug("用户 {} 超时未心跳，已移出在线列表", userId);
+            }
+        }
+    }
+
+    private void scheduleExpiry(Long userId, Presence presence, long delayMillis) {
+        presence.expiry = timingWheel.schedule(() -> checkExpiry(userId, presence), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // 存活窗口起点（毫秒时间戳）
+    private long windowStart() {
+        return System.currentTimeMillis() - livenessWindow.toMillis();
+    }
+
+    // 单个用户的在线记录
+    private static class Presence {
+        volatile long lastSeen;
+        volatile HashedTimingWheel.Timeout expiry;
+    }
+}
@@ -0,0 +1,112 @@
+package com.videoplat.meeting.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 进程内会议室在场人数存储（单节点模式）
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Component
+@ConditionalOnProperty(name = "videoplat.mode", havingValue = "standalone")
+public class InMemoryRoomOccupancyStore implements RoomOccupancyStore {
+
+    private final Map<Long, Set<Long>> rooms = new ConcurrentHashMap<>();
+
+    @Override
+    public void add(Long roomId, Long userId) {
+        addAll(roomId, Set.of(userId));
+    }
+
+    @Override
+    public Reservation reserve(Long roomId, Long userId, int capacity) {
+        Reservation[] result = new Reservation[1];
+        // 检查和加入都在 compute 中完成，同一会议室的并发预留串行执行
+        rooms.compute(roomId, (key, members) -> {
+            Set<Long> updated = members != null ? members : ConcurrentHashMap.newKeySet();
+            if (updated.contains(userId)) {
+                result[0] = Reservation.ALREADY_PRESENT;
+            } else if (updated.size() >= capacity) {
+                result[0] = Reservation.FULL;
+            } else {
+                updated.add(userId);
+                result[0] = Reservation.RESERVED;
+            }
+            return updated.isEmpty() ? null : updated;
+        });
+        return result[0];
+    }
+
+    @Override
+    public void remove(Long roomId, Long userId) {
+        rooms.computeIfPresent(roomId, (key, members) -> {
+            members.remove(userId);
+            return members.isEmpty() ? null : members;
+        });
+    }
+
+    @Override
+    public void clear(Long roomId) {
+        rooms.remove(roomId);
+    }
+
+    @Override
+    public long count(Long roomId) {
+        Set<Long> members = rooms.get(roomId);
+        return members != null ? members.size() : 0L;
+    }
+
+    @Override
+    public Map<Long, Long> counts(Collection<Long> roomIds) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Long roomId : roomIds) {
+            counts.put(roomId, count(roomId));
+        }
+        return counts;
+    }
+
+    @Override
+    public Set<Long> members(Long roomId) {
+        Set<Long> members = rooms.get(roomId);
+        return members != null ? new HashSet<>(members) : new HashSet<>();
+    }
+
+    @Override
+    public Map<Long, Set<Long>> members(Collection<Long> roomIds) {
+        Map<Long, Set<Long>> members = new HashMap<>();
+        for (Long roomId : roomIds) {
+            members.put(roomId, members(roomId));
+        }
+        return members;
+    }
+
+    @Override
+    public void addAll(Long roomId, Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        // 在 compute 中修改，避免与移除空集合并发时写入已被移除的集合
+        rooms.compute(roomId, (key, members) -> {
+            Set<Long> updated = members != null ? members : ConcurrentHashMap.newKeySet();
+            updated.addAll(userIds);
+            return updated;
+        });
+    }
+
+    @Override
+    public void removeAll(Long roomId, Collection<Long> userIds) {
+        rooms.computeIfPresent(roomId, (key, members) -> {
+            members.removeAll(userIds);
+            return members.isEmpty() ? null : members;
+        });
+    }
+}
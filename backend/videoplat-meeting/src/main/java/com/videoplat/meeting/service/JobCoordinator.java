@@ -0,0 +1,360 @@
+package com.videoplat.meeting.service;
+
+import com.videoplat.domain.entity.JobRun;
+import com.videoplat.domain.repository.JobLeaseRepository;
+import com.videoplat.domain.repository.JobNodeRepository;
+import com.videoplat.domain.repository.JobRunRepository;
+import com.videoplat.meeting.websocket.RoomEventRelay;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定时任务分片协调
+ *
+ * 集群中每个节点都会触发同一个 @Scheduled 任务，由本服务决定本节点实际执行哪些分片。
+ * 每个任务分成固定数量的分片，分片租约保存在 job_leases 表中，通过 INSERT ... ON CONFLICT DO UPDATE
+ * 原子地获取：分片无人持有、租约已过期或本节点已持有时成功。节点定期续约，
+ * 按存活节点数（job_nodes 心跳）计算应持有的分片数，多出的主动释放，不足时接管无人持有或已过期的分片；
+ * 节点宕机后其租约在 lease-ttl 内过期，由其他节点接管。
+ * 续约在独立线程上执行，不与 @Scheduled 任务共用调度线程，耗时较长的分片任务不会让租约过期；
+ * 每个分片执行前再检查一次本节点是否仍持有该分片，租约失效或已被释放的分片不再执行。
+ * 每次分片执行的节点、耗时和结果写入 job_runs 表，供管理后台查看。
+ * 租约时间使用各节点的本地时钟，节点之间需要保持时钟同步
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Slf4j
+@Service
+public class JobCoordinator {
+
+    private final JobLeaseRepository leaseRepository;
+    private final JobNodeRepository nodeRepository;
+    private final JobRunRepository runRepository;
+    private final RoomEventRelay roomEventRelay;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    // 已登记的任务及其分片数
+    private final Map<String, Integer> jobs = new ConcurrentHashMap<>();
+
+    // 本节点持有的分片，key 为任务名
+    private final Map<String, Ownership> ownerships = new ConcurrentHashMap<>();
+
+    // 是否启用租约协调，关闭后每个节点都执行全部分片（仅用于单节点部署）
+    @Value("${app.jobs.enabled:true}")
+    private boolean enabled;
+
+    // 按会议室划分的任务的默认分片数，修改后需要同时重启所有节点
+    @Value("${app.jobs.shards:8}")
+    private int shards;
+
+    // 租约有效期，应为续约间隔的 2～3 倍
+    @Value("${app.jobs.lease-ttl:PT30S}")
+    private Duration leaseTtl;
+
+    // 续约间隔（毫秒）
+    @Value("${app.jobs.renew-interval:10000}")
+    private long renewIntervalMillis;
+
+    // 执行记录保留时间
+    @Value("${app.jobs.run-retention:P7D}")
+    private Duration runRetention;
+
+    // 续约线程
+    private ScheduledExecutorService renewExecutor;
+
+    public JobCoordinator(JobLeaseRepository leaseRepository,
+                          JobNodeRepository nodeRepository,
+                          JobRunRepository runRepository,
+                          RoomEventRelay roomEventRelay,
+                          TransactionTemplate transactionTemplate,
+                          MeterRegistry meterRegistry) {
+        this.leaseRepository = leaseRepository;
+        this.nodeRepository = nodeRepository;
+        this.runRepository = runRepository;
+        this.roomEventRelay = roomEventRelay;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        renewExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "job-lease-renew");
+            thread.setDaemon(true);
+            return thread;
+        });
+        renewExecutor.scheduleWithFixedDelay(this::renewLeases,
+                renewIntervalMillis, renewIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!enabled) {
+            return;
+        }
+        renewExecutor.shutdownNow();
+        // 主动释放租约，其他节点在下一轮续约时即可接管，不必等待过期
+        try {
+            Integer released = transactionTemplate.execute(status ->
+                    leaseRepository.releaseAll(nodeId(), LocalDateTime.now()));
+            log.info("节点 {} 停止，释放 {} 个定时任务分片租约", nodeId(), released);
+        } catch (Exception e) {
+            log.warn("释放定时任务分片租约失败，等待租约过期后由其他节点接管", e);
+        }
+    }
+
+    /**
+     * 按会议室划分的任务的默认分片数
+     */
+    public int getShards() {
+        return shards;
+    }
+
+    /**
+     * 执行本节点持有的分片
+     *
+     * 任务首次执行时登记并立即获取租约；租约未能按时续约（如数据库不可用）时本轮不执行
+     *
+     * @param jobName 任务名
+     * @param shardCount 分片数，同一任务在所有节点上必须一致
+     * @param task 分片任务
+     */
+    public void runSharded(String jobName, int shardCount, ShardTask task) {
+        if (!enabled) {
+            for (int shard = 0; shard < shardCount; shard++) {
+                execute(jobName, shard, shardCount, task);
+            }
+            return;
+        }
+
+        if (jobs.putIfAbsent(jobName, shardCount) == null) {
+            try {
+                rebalance(jobName, shardCount, heartbeat());
+            } catch (Exception e) {
+                log.error("获取定时任务 {} 的分片租约失败", jobName, e);
+            }
+        }
+        Ownership ownership = ownerships.get(jobName);
+        if (ownership == null || !ownership.isValid()) {
+            log.debug("节点 {} 未持有任务 {} 的有效租约，跳过本轮执行", nodeId(), jobName);
+            return;
+        }
+        for (Integer shard : ownership.shards()) {
+            // 前面的分片执行期间租约可能已失效或分片已被重新分配
+            if (!owns(jobName, shard)) {
+                log.debug("节点 {} 已不再持有任务 {} 的分片 {}，跳过", nodeId(), jobName, shard);
+                continue;
+            }
+            execute(jobName, shard, shardCount, task);
+        }
+    }
+
+    private boolean owns(String jobName, int shard) {
+        Ownership current = ownerships.get(jobName);
+        return current != null && current.isValid() && current.shards().contains(shard);
+    }
+
+    /**
+     * 执行单分片任务，同一时间只有一个节点执行
+     *
+     * @param jobName 任务名
+     * @param task 任务，返回执行结果摘要
+     */
+    public void runExclusive(String jobName, ExclusiveTask task) {
+        runSharded(jobName, 1, (shard, shardCount) -> task.run());
+    }
+
+    /**
+     * 定期写入节点心跳，续约已持有的分片并重新分配（在续约线程上执行）
+     */
+    public void renewLeases() {
+        if (!enabled || jobs.isEmpty()) {
+            return;
+        }
+        long liveNodes;
+        try {
+            liveNodes = heartbeat();
+        } catch (Exception e) {
+            log.error("写入定时任务节点心跳失败", e);
+            return;
+        }
+        jobs.forEach((jobName, shardCount) -> {
+            try {
+                rebalance(jobName, shardCount, liveNodes);
+            } catch (Exception e) {
+                log.error("续约定时任务 {} 的分片租约失败", jobName, e);
+            }
+        });
+    }
+
+    /**
+     * 清理过期的执行记录和长时间没有心跳的节点
+     */
+    @Scheduled(fixedDelayString = "${app.jobs.prune-interval:3600000}")
+    public void pruneRuns() {
+        runExclusive("job-run-prune", () -> {
+            LocalDateTime now = LocalDateTime.now();
+            Integer runs = transactionTemplate.execute(status ->
+                    runRepository.deleteByStartedAtBefore(now.minus(runRetention)));
+            Integer nodes = transactionTemplate.execute(status ->
+                    nodeRepository.deleteByHeartbeatAtBefore(now.minusDays(1)));
+            return "删除 " + runs + " 条执行记录、" + nodes + " 个离线节点";
+        });
+    }
+
+    // 写入本节点心跳，返回存活节点数（至少为 1）
+    private long heartbeat() {
+        LocalDateTime now = LocalDateTime.now();
+        Long liveNodes = transactionTemplate.execute(status -> {
+            nodeRepository.heartbeat(nodeId(), now);
+            return nodeRepository.countByHeartbeatAtGreaterThanEqual(now.minus(leaseTtl));
+        });
+        return Math.max(1L, liveNodes != null ? liveNodes : 1L);
+    }
+
+    /**
+     * 续约并重新分配一个任务的分片
+     *
+     * 每个分片的获取和释放各用一个短事务，避免多个节点以不同顺序锁定租约行时死锁
+     */
+    private synchronized void rebalance(String jobName, int shardCount, long liveNodes) {
+        int target = (int) Math.min(shardCount, (shardCount + liveNodes - 1) / liveNodes);
+        Ownership previous = ownerships.get(jobName);
+        Set<Integer> held = previous != null ? previous.shards() : Set.of();
+
+        // 有效期从续约开始前计算，保证本地判断不晚于数据库中的租约到期时间
+        long validUntilNanos = System.nanoTime() + leaseTtl.toNanos();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseUntil = now.plus(leaseTtl);
+
+        Set<Integer> acquired = new TreeSet<>();
+        for (Integer shard : held) {
+            if (acquired.size() < target && tryAcquire(jobName, shard, leaseUntil, now)) {
+                acquired.add(shard);
+            }
+        }
+        // 从随机位置开始接管，避免同时启动的节点争抢同一批分片
+        int offset = ThreadLocalRandom.current().nextInt(shardCount);
+        for (int i = 0; i < shardCount && acquired.size() < target; i++) {
+            int shard = (offset + i) % shardCount;
+            if (!held.contains(shard) && tryAcquire(jobName, shard, leaseUntil, now)) {
+                acquired.add(shard);
+            }
+        }
+        // 超出目标数的分片主动释放，由其他节点接管
+        for (Integer shard : held) {
+            if (!acquired.contains(shard)) {
+                transactionTemplate.execute(status -> leaseRepository.release(jobName, shard, nodeId(), now));
+            }
+        }
+
+        ownerships.put(jobName, new Ownership(Set.copyOf(acquired), validUntilNanos));
+        if (!acquired.equals(held)) {
+            log.info("定时任务 {} 在节点 {} 上的分片变为 {}（共 {} 个分片，{} 个存活节点）",
+                    jobName, nodeId(), acquired, shardCount, liveNodes);
+        }
+    }
+
+    private boolean tryAcquire(String jobName, int shard, LocalDateTime leaseUntil, LocalDateTime now) {
+        Integer updated = transactionTemplate.execute(status ->
+                leaseRepository.tryAcquire(jobName, shard, nodeId(), leaseUntil, now));
+        return updated != null && updated > 0;
+    }
+
+    // 执行一个分片并记录结果
+    private void execute(String jobName, int shard, int shardCount, ShardTask task) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        boolean success = true;
+        String detail;
+        try {
+            detail = task.run(shard, shardCount);
+        } catch (Exception e) {
+            success = false;
+            detail = e.getClass().getSimpleName() + ": " + e.getMessage();
+            log.error("定时任务 {} 分片 {} 执行失败", jobName, shard, e);
+        }
+        long durationNanos = System.nanoTime() - start;
+        Timer.builder("jobs.run")
+                .tag("job", jobName)
+                .tag("success", String.valueOf(success))
+                .description("定时任务分片执行耗时")
+                .register(meterRegistry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+
+        try {
+            runRepository.save(JobRun.builder()
+                    .jobName(jobName)
+                    .shard(shard)
+                    .nodeId(nodeId())
+                    .startedAt(startedAt)
+                    .durationMs(TimeUnit.NANOSECONDS.toMillis(durationNanos))
+                    .success(success)
+                    .detail(detail)
+                    .build());
+        } catch (Exception e) {
+            log.warn("记录定时任务 {} 分片 {} 的执行结果失败", jobName, shard, e);
+        }
+    }
+
+    private String nodeId() {
+        return roomEventRelay.getNodeId();
+    }
+
+    /**
+     * 分片任务
+     */
+    @FunctionalInterface
+    public interface ShardTask {
+
+        /**
+         * @param shard 分片序号，从 0 开始
+         * @param shardCount 分片数
+         * @return 执行结果摘要，写入执行记录
+         */
+        String run(int shard, int shardCount);
+    }
+
+    /**
+     * 单分片任务
+     */
+    @FunctionalInterface
+    public interface ExclusiveTask {
+
+        /**
+         * @return 执行结果摘要，写入执行记录
+         */
+        String run();
+    }
+
+    // 本节点持有的分片及本地判断的租约有效期
+    private record Ownership(Set<Integer> shards, long validUntilNanos) {
+
+        boolean isValid() {
+            return System.nanoTime() - validUntilNanos < 0;
+        }
+    }
+}
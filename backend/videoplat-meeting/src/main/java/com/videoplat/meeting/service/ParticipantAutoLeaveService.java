@@ -0,0 +1,248 @@
+package com.videoplat.meeting.service;
+
+import com.videoplat.common.util.HashedTimingWheel;
+import com.videoplat.domain.entity.Room;
+import com.videoplat.domain.entity.RoomParticipant;
+import com.videoplat.domain.repository.RoomParticipantRepository;
+import com.videoplat.domain.repository.RoomRepository;
+import com.videoplat.meeting.websocket.RoomEventRelay;
+import com.videoplat.meeting.websocket.WebSocketSessionRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 断线参与者自动离开服务
+ *
+ * 用户的最后一个 WebSocket 连接断开后开始宽限期计时，计时器挂在哈希时间轮上；
+ * 宽限期内重新连接则取消计时。到期的用户先放入待处理队列，
+ * 由定时任务通过一次批量更新将其从所在的全部会议室中移出，避免浏览器崩溃后留下的参与记录一直占用会议室。
+ * 到期时仍显示在线的用户（在其他节点重新连接，或在线状态尚未过期）重新计时，而不是直接丢弃。
+ * 在线状态由持有连接的节点定期续写（app.presence.local-refresh-interval，应小于宽限期），
+ * 在其他节点仍有连接的用户即使被旧连接的关闭误删，到期前也已重新写入，不会被移出会议室。
+ * 在场人数和消息频道在批量更新提交后才同步，事务回滚时到期的用户重新放回待处理队列
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Slf4j
+@Service
+public class ParticipantAutoLeaveService {
+
+    private final RoomParticipantRepository participantRepository;
+    private final RoomRepository roomRepository;
+    private final OnlineStatusService onlineStatusService;
+    private final RoomEventRelay roomEventRelay;
+    private final WebSocketSessionRegistry sessionRegistry;
+    private final RoomOccupancyStore occupancyStore;
+    private final Counter autoLeftCounter;
+    private final Counter rearmedCounter;
+
+    // 宽限期计时器，key 为用户 ID
+    private final Map<Long, HashedTimingWheel.Timeout> graceTimers = new ConcurrentHashMap<>();
+
+    // 宽限期已到、等待批量处理的用户
+    private final Queue<Long> expiredUsers = new ConcurrentLinkedQueue<>();
+
+    // 是否启用断线自动离开
+    @Value("${app.room.auto-leave.enabled:true}")
+    private boolean enabled;
+
+    // 断线后的宽限期
+    @Value("${app.room.auto-leave.grace-period:PT60S}")
+    private Duration gracePeriod;
+
+    private HashedTimingWheel timingWheel;
+
+    public ParticipantAutoLeaveService(RoomParticipantRepository participantRepository,
+                                       RoomRepository roomRepository,
+                                       OnlineStatusService onlineStatusService,
+                                       RoomEventRelay roomEventRelay,
+                                       WebSocketSessionRegistry sessionRegistry,
+                                       RoomOccupancyStore occupancyStore,
+                                       MeterRegistry meterRegistry) {
+        this.participantRepository = participantRepository;
+        this.roomRepository = roomRepository;
+        this.onlineStatusService = onlineStatusService;
+        this.roomEventRelay = roomEventRelay;
+        this.sessionRegistry = sessionRegistry;
+        this.occupancyStore = occupancyStore;
+        this.autoLeftCounter = Counter.builder("room.participant.auto-left")
+                .description("断线超过宽限期被自动移出会议室的参与记录数")
+                .register(meterRegistry);
+        this.rearmedCounter = Counter.builder("room.participant.auto-leave.rearmed")
+                .description("宽限期到期时仍显示在线、重新计时的用户数")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        // 1 秒一格、512 格，宽限期通常不超过一圈
+        timingWheel = new HashedTimingWheel("auto-leave-wheel", 1, TimeUnit.SECONDS, 512);
+        timingWheel.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        timingWheel.stop();
+    }
+
+    /**
+     * 用户的最后一个连接断开，开始宽限期计时
+     *
+     * @param userId 用户 ID
+     */
+    public void onDisconnected(Long userId) {
+        if (!enabled) {
+            return;
+        }
+        schedule(userId, true);
+    }
+
+    /**
+     * 用户重新连接，取消宽限期计时
+     *
+     * @param userId 用户 ID
+     */
+    public void onConnected(Long userId) {
+        HashedTimingWheel.Timeout timeout = graceTimers.remove(userId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    /**
+     * 将宽限期已到的用户从所在会议室中批量移出
+     *
+     * 处理前再检查一次连接状态：在本节点重新连接的直接跳过；在线状态仍显示在线的
+     * （可能在其他节点重新连接，也可能是心跳尚未过期的残留状态）重新计时，
+     * 下次到期时再判断，避免残留状态让断线用户永远留在会议室中
+     */
+    @Scheduled(fixedDelayString = "${app.room.auto-leave.flush-interval:5000}")
+    @Transactional
+    public void flushExpired() {
+        List<Long> drained = new ArrayList<>();
+        Long polled;
+        while ((polled = expiredUsers.poll()) != null) {
+            drained.add(polled);
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+        requeueOnRollback(drained);
+
+        Set<Long> userIds = new HashSet<>();
+        for (Long userId : drained) {
+            if (sessionRegistry.isConnected(userId)) {
+                continue;
+            }
+            if (onlineStatusService.isUserOnline(userId)) {
+                // 已有新的计时器（期间在本节点重新连接后又断开）时保留新的计时器
+                if (schedule(userId, false)) {
+                    rearmedCounter.increment();
+                }
+                continue;
+            }
+            userIds.add(userId);
+        }
+        if (userIds.isEmpty()) {
+            return;
+        }
+
+        List<RoomParticipant> participants = participantRepository.findByUserIdInAndLeftAtIsNull(userIds);
+        if (participants.isEmpty()) {
+            return;
+        }
+
+        int updated = participantRepository.markLeftByUserIds(userIds, LocalDateTime.now());
+        autoLeftCounter.increment(updated);
+
+        // 通知各节点将这些用户移出会议室消息频道
+        Set<Long> roomIds = participants.stream().map(RoomParticipant::getRoomId).collect(Collectors.toSet());
+        Map<Long, String> roomKeys = roomRepository.findAllById(roomIds).stream()
+                .collect(Collectors.toMap(Room::getId, Room::getRoomId, (a, b) -> a));
+        List<String> affected = new ArrayList<>();
+        for (RoomParticipant participant : participants) {
+            String roomId = roomKeys.get(participant.getRoomId());
+            if (roomId != null) {
+                affected.add(roomId);
+            }
+        }
+        AfterCommit.run(() -> {
+            for (RoomParticipant participant : participants) {
+                occupancyStore.remove(participant.getRoomId(), participant.getUserId());
+                String roomId = roomKeys.get(participant.getRoomId());
+                if (roomId != null) {
+                    roomEventRelay.leaveRoom(roomId, participant.getUserId());
+                }
+            }
+        });
+        log.info("{} 个断线用户超过宽限期，已自动离开 {} 条参与记录，涉及会议室: {}",
+                userIds.size(), updated, affected.stream().distinct().toList());
+    }
+
+    // 事务回滚时将本次取出的用户放回待处理队列，下一周期重新处理
+    private void requeueOnRollback(List<Long> userIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    expiredUsers.addAll(userIds);
+                    log.warn("断线用户自动离开的批量更新未提交，{} 个用户放回待处理队列", userIds.size());
+                }
+            }
+        });
+    }
+
+    /**
+     * 开始宽限期计时
+     *
+     * @param replace true 表示替换已有的计时器，false 表示已有计时器时不再计时
+     * @return true 表示已开始计时
+     */
+    private boolean schedule(Long userId, boolean replace) {
+        HashedTimingWheel.Timeout[] holder = new HashedTimingWheel.Timeout[1];
+        holder[0] = timingWheel.schedule(() -> {
+            // 只处理仍是当前计时器的到期，期间被取消或替换的忽略
+            if (graceTimers.remove(userId, holder[0])) {
+                expiredUsers.add(userId);
+            }
+        }, gracePeriod.toMillis(), TimeUnit.MILLISECONDS);
+        if (!replace) {
+            if (graceTimers.putIfAbsent(userId, holder[0]) != null) {
+                holder[0].cancel();
+                return false;
+            }
+            return true;
+        }
+        HashedTimingWheel.Timeout previous = graceTimers.put(userId, holder[0]);
+        if (previous != null) {
+            previous.cancel();
+        }
+        return true;
+    }
+}
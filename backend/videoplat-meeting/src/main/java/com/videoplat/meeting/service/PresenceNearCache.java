@@ -0,0 +1,133 @@
+package com.videoplat.meeting.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * 在线状态本地近缓存
+ *
+ * 缓存用户最近一次心跳时间，重复的在线状态查询在本地完成。
+ * 上线和下线时通过 Redis 发布/订阅通知所有节点失效对应条目；
+ * 心跳更新和超时清理不发通知，由较短的写入过期时间收敛。
+ * 命中率以 cache.*（cache=presence）和 presence.near-cache.hit-rate 指标注册到 Micrometer
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "videoplat.mode", havingValue = "cluster", matchIfMissing = true)
+public class PresenceNearCache implements MessageListener {
+
+    private static final String INVALIDATION_CHANNEL = "presence:invalidate";
+
+    // 用户不在在线集合中时缓存的占位值（Caffeine 不能缓存 null）
+    private static final double ABSENT = -1D;
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MeterRegistry meterRegistry;
+
+    // 开关：关闭后每次查询都直接访问 Redis
+    @Value("${app.presence.near-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.presence.near-cache.max-size:50000}")
+    private long maxSize;
+
+    // 写入过期时间，决定未通知的变更（心跳、超时清理）在本地最多延迟多久可见
+    @Value("${app.presence.near-cache.ttl:PT10S}")
+    private Duration ttl;
+
+    private Cache<Long, Double> cache;
+
+    public PresenceNearCache(StringRedisTemplate redisTemplate,
+                             RedisMessageListenerContainer listenerContainer,
+                             MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            log.info("在线状态近缓存已关闭");
+            return;
+        }
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "presence");
+        Gauge.builder("presence.near-cache.hit-rate", cache, c -> c.stats().hitRate())
+                .description("在线状态近缓存命中率")
+                .register(meterRegistry);
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    /**
+     * 获取用户最近一次心跳时间，未命中时通过 loader 从 Redis 加载
+     *
+     * @param userId 用户 ID
+     * @param loader 加载函数，用户不在在线集合中时返回 null
+     * @return 最近心跳时间（毫秒），不在线时为 null
+     */
+    public Double getLastSeen(Long userId, Function<Long, Double> loader) {
+        if (cache == null) {
+            return loader.apply(userId);
+        }
+        Double lastSeen = cache.get(userId, id -> {
+            Double loaded = loader.apply(id);
+            return loaded != null ? loaded : ABSENT;
+        });
+        return lastSeen == null || lastSeen == ABSENT ? null : lastSeen;
+    }
+
+    /**
+     * 失效本地条目并通知其他节点（用户上线或下线后调用）
+     *
+     * @param userId 用户 ID
+     */
+    public void invalidate(Long userId) {
+        if (cache == null) {
+            return;
+        }
+        cache.invalidate(userId);
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, userId.toString());
+        } catch (Exception e) {
+            log.warn("发布在线状态失效通知失败，用户 {}", userId, e);
+        }
+    }
+
+    /**
+     * 接收其他节点的失效通知
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            cache.invalidate(Long.parseLong(new String(message.getBody(), StandardCharsets.UTF_8)));
+        } catch (NumberFormatException e) {
+            log.warn("忽略无法解析的在线状态失效通知");
+        }
+    }
+}
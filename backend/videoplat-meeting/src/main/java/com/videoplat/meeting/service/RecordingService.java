@@ -35,6 +35,7 @@ public class RecordingService {
 
     private final RecordingRepository recordingRepository;
     private final RoomRepository roomRepository;
+    private final RoomCache roomCache;
     private final AgoraService agoraService;
     private final AgoraCloudRecordingService cloudRecordingService;
     private final LocalRecordingService localRecordingService;
@@ -59,7 +60,7 @@ public class RecordingService {
      */
     @Transactional
     public RecordingDto startRecording(String roomId, Long userId) {
-        Room room = roomRepository.findByRoomId(roomId)
+        Room room = roomCache.findByRoomId(roomId)
                 .orElseThrow(() -> new RuntimeException("会议室不存在"));
 
         if (!room.getCreatorId().equals(userId)) {
@@ -141,7 +142,7 @@ public class RecordingService {
                     .orElseThrow(() -> new RuntimeException("录制不存在"));
         } else {
             // 如果未指定 recordingId，查找该会议室当前正在进行的录制
-            Room room = roomRepository.findByRoomId(roomId)
+            Room room = roomCache.findByRoomId(roomId)
                     .orElseThrow(() -> new RuntimeException("会议室不存在"));
 
             List<Recording> activeRecordings = recordingRepository.findByRoomId(room.getId())
@@ -266,8 +267,8 @@ public class RecordingService {
             throw new RuntimeException("本地录制服务未配置，请检查录制器路径");
         }
 
-        // 获取 RTC Token
-        String token = agoraService.generateRtcToken(room.getRoomId(), userId.intValue());
+        // 获取 RTC Token：录制会持续较长时间，不使用缓存中可能即将过期的 Token
+        String token = agoraService.generateFreshRtcToken(room.getRoomId(), userId.intValue()).token();
 
         // 启动本地录制
         String filePath = localRecordingService.startRecording(
@@ -310,8 +311,8 @@ public class RecordingService {
         );
         recording.setAgoraResourceId(resourceId);
 
-        // 2. 获取 RTC Token
-        String token = agoraService.generateRtcToken(room.getRoomId(), userId.intValue());
+        // 2. 获取 RTC Token：录制会持续较长时间，不使用缓存中可能即将过期的 Token
+        String token = agoraService.generateFreshRtcToken(room.getRoomId(), userId.intValue()).token();
 
         // 3. 开始云端录制
         String sid = cloudRecordingService.startRecording(
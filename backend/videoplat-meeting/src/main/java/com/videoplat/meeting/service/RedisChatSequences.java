@@ -0,0 +1,116 @@
+package com.videoplat.meeting.service;
+
+import com.videoplat.meeting.dto.ChatMessageDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 聊天消息序号和可见起点的 Redis 存储，两种 Redis 聊天历史实现共用
+ *
+ * 序号键 chat:seq:{roomId} 和可见起点键 chat:cleared:{roomId} 设置较长的过期时间（默认 30 天），
+ * 每次分配序号时一起续期，长期没有消息的会议室不会一直占用 Redis。
+ * 序号键不存在（从未写入或已过期）时从归档表中的最大序号继续，与进程内实现一致，序号不会重复；
+ * 未启用归档时过期后序号从可见起点继续。可见起点过期后，早于它的归档消息会重新可见
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Component
+public class RedisChatSequences {
+
+    private static final String CHAT_SEQ_KEY_PREFIX = "chat:seq:";
+    private static final String CHAT_CLEARED_KEY_PREFIX = "chat:cleared:";
+
+    /**
+     * 分配序号并续期：序号键不存在时用 ARGV[1] 初始化，ARGV[1] 为空时返回 -1，由调用方查询初始值后重试。
+     * KEYS: 序号键、可见起点键；ARGV: 初始值、过期秒数
+     */
+    private static final RedisScript<Long> NEXT_SEQUENCE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then " +
+            "  if ARGV[1] == '' then return -1 end " +
+            "  redis.call('SET', KEYS[1], ARGV[1]) " +
+            "end " +
+            "local seq = redis.call('INCR', KEYS[1]) " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[2]) " +
+            "redis.call('EXPIRE', KEYS[2], ARGV[2]) " +
+            "return seq",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ChatArchiveService chatArchiveService;
+
+    // 序号键和可见起点键的过期时间，每次写入时续期
+    @Value("${app.chat.sequence-ttl:P30D}")
+    private Duration ttl = Duration.ofDays(30);
+
+    public RedisChatSequences(StringRedisTemplate stringRedisTemplate, ChatArchiveService chatArchiveService) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.chatArchiveService = chatArchiveService;
+    }
+
+    /**
+     * 分配会议室的下一个消息序号
+     *
+     * @param roomId 会议室 ID
+     * @return 序号，从 1 开始
+     */
+    public long next(String roomId) {
+        List<String> keys = List.of(CHAT_SEQ_KEY_PREFIX + roomId, CHAT_CLEARED_KEY_PREFIX + roomId);
+        String ttlSeconds = String.valueOf(ttl.toSeconds());
+        Long seq = stringRedisTemplate.execute(NEXT_SEQUENCE_SCRIPT, keys, "", ttlSeconds);
+        if (seq != null && seq < 0) {
+            // 序号键不存在：从归档表恢复，多个节点同时恢复时脚本内的判断保证只初始化一次
+            seq = stringRedisTemplate.execute(NEXT_SEQUENCE_SCRIPT, keys, String.valueOf(recover(roomId)), ttlSeconds);
+        }
+        return seq != null ? seq : 0L;
+    }
+
+    /**
+     * 会议室已分配的最大序号，序号键不存在时从归档表查询
+     *
+     * @param roomId 会议室 ID
+     * @return 最大序号，没有消息时为 0
+     */
+    public long latest(String roomId) {
+        String value = stringRedisTemplate.opsForValue().get(CHAT_SEQ_KEY_PREFIX + roomId);
+        return value != null ? Long.parseLong(value) : recover(roomId);
+    }
+
+    /**
+     * 将可见起点设为当前最大序号（清除聊天历史时调用）
+     *
+     * @param roomId 会议室 ID
+     */
+    public void markCleared(String roomId) {
+        stringRedisTemplate.opsForValue().set(CHAT_CLEARED_KEY_PREFIX + roomId, String.valueOf(latest(roomId)), ttl);
+    }
+
+    /**
+     * 会议室的可见起点
+     *
+     * @param roomId 会议室 ID
+     * @return 可见起点序号，未清除过时为 0
+     */
+    public long cleared(String roomId) {
+        String value = stringRedisTemplate.opsForValue().get(CHAT_CLEARED_KEY_PREFIX + roomId);
+        return value != null ? Long.parseLong(value) : 0L;
+    }
+
+    // 序号键不存在时的起始值：归档表中的最大序号，且不小于可见起点
+    private long recover(String roomId) {
+        long archived = 0L;
+        if (chatArchiveService.isEnabled()) {
+            List<ChatMessageDTO> latest = chatArchiveService.findLatest(roomId, 0L, Long.MAX_VALUE, 1);
+            if (!latest.isEmpty()) {
+                archived = latest.get(0).getId();
+            }
+        }
+        return Math.max(archived, cleared(roomId));
+    }
+}
@@ -0,0 +1,108 @@
+package com.videoplat.meeting.service;
+
+import com.videoplat.meeting.dto.ChatMessageDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于 Redis 列表的聊天历史存储
+ *
+ * 保留原有实现，用于与 Redis Streams 实现对比。游标为消息序号，分页在内存中完成
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.chat.store", havingValue = "list")
+public class RedisListChatHistoryStore implements ChatHistoryStore {
+
+    private static final String CHAT_HISTORY_KEY_PREFIX = "chat:room:";
+    private static final int CHAT_HISTORY_EXPIRE_HOURS = 24;
+    private static final int MAX_CHAT_HISTORY_SIZE = 100;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisChatSequences sequences;
+
+    @Override
+    public long nextSequence(String roomId) {
+        return sequences.next(roomId);
+    }
+
+    @Override
+    public void appendAll(String roomId, List<ChatMessageDTO> messages) {
+        String key = CHAT_HISTORY_KEY_PREFIX + roomId;
+        for (ChatMessageDTO message : messages) {
+            message.setCursor(String.valueOf(message.getId()));
+        }
+
+        // 添加消息到列表
+        redisTemplate.opsForList().rightPushAll(key, new ArrayList<Object>(messages));
+
+        // 限制列表大小
+        Long size = redisTemplate.opsForList().size(key);
+        if (size != null && size > MAX_CHAT_HISTORY_SIZE) {
+            redisTemplate.opsForList().trim(key, size - MAX_CHAT_HISTORY_SIZE, -1);
+        }
+
+        // 设置过期时间
+        redisTemplate.expire(key, CHAT_HISTORY_EXPIRE_HOURS, TimeUnit.HOURS);
+    }
+
+    @Override
+    public long latestSequence(String roomId) {
+        return sequences.latest(roomId);
+    }
+
+    @Override
+    public List<ChatMessageDTO> query(String roomId, String after, String before, int limit) {
+        String key = CHAT_HISTORY_KEY_PREFIX + roomId;
+        List<Object> messages = redisTemplate.opsForList().range(key, 0, -1);
+        if (messages == null || messages.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Long afterId = after != null ? Long.parseLong(after) : null;
+        Long beforeId = before != null ? Long.parseLong(before) : null;
+
+        List<ChatMessageDTO> matched = new ArrayList<>();
+        for (Object msg : messages) {
+            if (msg instanceof ChatMessageDTO message) {
+                if (afterId != null && message.getId() <= afterId) {
+                    continue;
+                }
+                if (beforeId != null && message.getId() >= beforeId) {
+                    continue;
+                }
+                matched.add(message);
+            }
+        }
+
+        if (matched.size() <= limit) {
+            return matched;
+        }
+        // 只指定 after 时取最早的部分，否则取最新的部分
+        return afterId != null && beforeId == null
+                ? new ArrayList<>(matched.subList(0, limit))
+                : new ArrayList<>(matched.subList(matched.size() - limit, matched.size()));
+    }
+
+    @Override
+    public void clear(String roomId) {
+        sequences.markCleared(roomId);
+        redisTemplate.delete(CHAT_HISTORY_KEY_PREFIX + roomId);
+    }
+
+    @Override
+    public long clearedSequence(String roomId) {
+        return sequences.cleared(roomId);
+    }
+}
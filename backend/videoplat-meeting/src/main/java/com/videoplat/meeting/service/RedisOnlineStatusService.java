@@ -0,0 +1,266 @@
+package com.videoplat.meeting.service;
+
+import com.videoplat.meeting.websocket.WebSocketSessionRegistry;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于 Redis 的在线状态服务（集群模式，默认实现）
+ *
+ * 在线用户保存在 Redis 有序集合中，分值为最近一次心跳的时间戳（毫秒）。
+ * 分值落在存活窗口内的用户视为在线，节点崩溃后残留的成员会在窗口过后被定期清理，
+ * 不会一直计入在线人数。心跳先在内存中合并，由定时任务每秒通过一次 ZADD GT 批量写入，分值只增不减；
+ * 只写入在本节点仍有连接的用户，连接已关闭的用户缓冲的心跳直接丢弃。
+ * 同一用户可能先在其他节点重新连接、本节点的旧连接随后才关闭，因此离线是有条件的：
+ * 只有分值不晚于本节点记录的该用户最近心跳时才移除，其他节点更新的心跳不会被旧连接的关闭清掉；
+ * 即使被误删，持有连接的节点在下一次心跳时也会重新写入。分值比较使用各节点的本地时钟，节点之间需要保持时钟同步
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "videoplat.mode", havingValue = "cluster", matchIfMissing = true)
+public class RedisOnlineStatusService implements OnlineStatusService {
+
+    // 在线用户有序集合，成员为用户 ID，分值为最近心跳时间
+    private static final String ONLINE_USERS_ZSET = "online:presence";
+
+    /**
+     * 批量写入心跳：ZADD GT（需要 Redis 6.2+），ARGV 为 (分值, 成员) 对
+     */
+    private static final RedisScript<Long> HEARTBEAT_SCRIPT = new DefaultRedisScript<>(
+            "return redis.call('ZADD', KEYS[1], 'GT', unpack(ARGV))",
+            Long.class);
+
+    /**
+     * 有条件离线：分值不晚于 ARGV[2] 时才移除成员 ARGV[1]
+     */
+    private static final RedisScript<Long> OFFLINE_SCRIPT = new DefaultRedisScript<>(
+            "local score = redis.call('ZSCORE', KEYS[1], ARGV[1]) " +
+            "if score and tonumber(score) <= tonumber(ARGV[2]) then " +
+            "  return redis.call('ZREM', KEYS[1], ARGV[1]) " +
+            "end " +
+            "return 0",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final PresenceNearCache nearCache;
+    private final WebSocketSessionRegistry sessionRegistry;
+    private final JobCoordinator jobCoordinator;
+    private final DistributionSummary flushSizeSummary;
+    private final Timer flushTimer;
+
+    // 等待写入的心跳，key 为用户 ID，value 为最近一次心跳时间；同一用户在一个周期内只写入一次
+    private final Map<Long, Long> pendingHeartbeats = new ConcurrentHashMap<>();
+
+    // 本节点连接的用户最近一次上线或心跳的时间，离线时只移除不晚于该时间的分值
+    private final Map<Long, Long> localLastSeen = new ConcurrentHashMap<>();
+
+    // 存活窗口：超过该时间没有心跳的用户视为离线
+    @Value("${app.presence.liveness-window:PT5M}")
+    private Duration livenessWindow;
+
+    // 单次 ZADD 写入的最大用户数
+    @Value("${app.presence.heartbeat-batch-size:500}")
+    private int heartbeatBatchSize;
+
+    public RedisOnlineStatusService(StringRedisTemplate redisTemplate,
+                                    PresenceNearCache nearCache,
+                                    WebSocketSessionRegistry sessionRegistry,
+                                    JobCoordinator jobCoordinator,
+                                    MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.nearCache = nearCache;
+        this.sessionRegistry = sessionRegistry;
+        this.jobCoordinator = jobCoordinator;
+        this.flushSizeSummary = DistributionSummary.builder("presence.heartbeat.flush.size")
+                .description("每次批量写入心跳的用户数")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("presence.heartbeat.flush.latency")
+                .description("批量写入心跳的耗时")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void setUserOnline(Long userId) {
+        try {
+            long now = System.currentTimeMillis();
+            localLastSeen.put(userId, now);
+            redisTemplate.opsForZSet().add(ONLINE_USERS_ZSET, userId.toString(), now);
+            nearCache.invalidate(userId);
+            log.info("用户 {} 已设置为在线状态", userId);
+        } catch (Exception e) {
+            log.error("设置用户 {} 在线状态失败", userId, e);
+        }
+    }
+
+    @Override
+    public void setUserOffline(Long userId) {
+        try {
+            // 丢弃尚未写入的心跳；已被本周期取走的心跳在写入前检查本节点是否仍有连接
+            pendingHeartbeats.remove(userId);
+            Long lastSeen = localLastSeen.remove(userId);
+            if (lastSeen != null) {
+                // 用户可能已在其他节点重新连接，只移除本节点写入的分值
+                redisTemplate.execute(OFFLINE_SCRIPT, List.of(ONLINE_USERS_ZSET), userId.toString(), lastSeen.toString());
+            } else {
+                // 本节点没有该用户的连接（如管理员强制下线），直接移除
+                redisTemplate.opsForZSet().remove(ONLINE_USERS_ZSET, userId.toString());
+            }
+            nearCache.invalidate(userId);
+            log.info("用户 {} 已设置为离线状态", userId);
+        } catch (Exception e) {
+            log.error("设置用户 {} 离线状态失败", userId, e);
+        }
+    }
+
+    @Override
+    public boolean isUserOnline(Long userId) {
+        try {
+            // 优先使用本地近缓存
+            Double lastSeen = nearCache.getLastSeen(userId,
+                    id -> redisTemplate.opsForZSet().score(ONLINE_USERS_ZSET, id.toString()));
+            return lastSeen != null && lastSeen >= windowStart();
+        } catch (Exception e) {
+            log.error("检查用户 {} 在线状态失败", userId, e);
+            return false;
+        }
+    }
+
+    @Override
+    public List<String> getOnlineUsers(long offset, long limit) {
+        try {
+            Set<String> members = redisTemplate.opsForZSet()
+                    .reverseRangeByScore(ONLINE_USERS_ZSET, windowStart(), Double.POSITIVE_INFINITY, offset, limit);
+            return members != null ? new ArrayList<>(members) : List.of();
+        } catch (Exception e) {
+            log.error("获取在线用户列表失败", e);
+            return List.of();
+        }
+    }
+
+    @Override
+    public long getOnlineUserCount() {
+        try {
+            Long count = redisTemplate.opsForZSet().count(ONLINE_USERS_ZSET, windowStart(), Double.POSITIVE_INFINITY);
+            return count != null ? count : 0;
+        } catch (Exception e) {
+            log.error("获取在线用户数量失败", e);
+            return 0;
+        }
+    }
+
+    @Override
+    public void refreshUserOnlineStatus(Long userId) {
+        // 只记录到内存，由 flushHeartbeats 批量写入
+        long now = System.currentTimeMillis();
+        localLastSeen.put(userId, now);
+        pendingHeartbeats.put(userId, now);
+    }
+
+    /**
+     * 批量写入本周期内收到的心跳
+     *
+     * 只写入在本节点仍有连接的用户：连接仍在时即使成员已被移除（其他节点的旧连接关闭、超时清理）也重新加入
+     */
+    @Scheduled(fixedDelayString = "${app.presence.heartbeat-flush-interval:1000}")
+    public void flushHeartbeats() {
+        if (pendingHeartbeats.isEmpty()) {
+            return;
+        }
+
+        List<String> args = new ArrayList<>(pendingHeartbeats.size() * 2);
+        for (Map.Entry<Long, Long> entry : pendingHeartbeats.entrySet()) {
+            // 只在心跳时间未被并发更新时移除，新的心跳留到下一周期写入
+            pendingHeartbeats.remove(entry.getKey(), entry.getValue());
+            if (!sessionRegistry.isConnected(entry.getKey())) {
+                continue;
+            }
+            args.add(entry.getValue().toString());
+            args.add(entry.getKey().toString());
+        }
+        int users = args.size() / 2;
+        if (users == 0) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            for (int from = 0; from < args.size(); from += heartbeatBatchSize * 2) {
+                List<String> chunk = args.subList(from, Math.min(args.size(), from + heartbeatBatchSize * 2));
+                redisTemplate.execute(HEARTBEAT_SCRIPT, List.of(ONLINE_USERS_ZSET), chunk.toArray());
+            }
+            log.debug("批量写入 {} 个用户的心跳", users);
+        } catch (Exception e) {
+            // 存活窗口远大于心跳间隔，一次写入失败不影响在线状态，下一次心跳会重新写入
+            log.error("批量写入心跳失败，共 {} 个用户", users, e);
+        } finally {
+            flushSizeSummary.record(users);
+            flushTimer.record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * 续写本节点所有连接用户的在线状态
+     *
+     * 不依赖客户端心跳帧：连接仍在的用户不会因存活窗口过期被清理，被其他节点旧连接的关闭误删后
+     * 也会在一个间隔内重新写入。间隔应小于断线自动离开的宽限期，随下一次 flushHeartbeats 批量写入
+     */
+    @Scheduled(fixedDelayString = "${app.presence.local-refresh-interval:20000}")
+    public void refreshLocalSessions() {
+        for (Long userId : sessionRegistry.getConnectedUserIds()) {
+            refreshUserOnlineStatus(userId);
+        }
+    }
+
+    /**
+     * 清理存活窗口之外的成员（节点崩溃等原因未正常下线的用户）
+     *
+     * 在线用户集合是全局的，同一时间只由一个节点清理
+     */
+    @Scheduled(fixedDelayString = "${app.presence.sweep-interval:60000}")
+    public void sweepStaleUsers() {
+        jobCoordinator.runExclusive("presence-sweep", () -> {
+            Long removed = redisTemplate.opsForZSet()
+                    .removeRangeByScore(ONLINE_USERS_ZSET, Double.NEGATIVE_INFINITY, windowStart());
+            if (removed != null && removed > 0) {
+                log.info("清理 {} 个超时未心跳的在线用户", removed);
+            }
+            return "清理 " + (removed != null ? removed : 0) + " 个在线用户";
+        });
+    }
+
+    @Override
+    public void clearAllOnlineStatus() {
+        try {
+            pendingHeartbeats.clear();
+            localLastSeen.clear();
+            redisTemplate.delete(ONLINE_USERS_ZSET);
+            log.info("已清理所有在线状态");
+        } catch (Exception e) {
+            log.error("清理在线状态失败", e);
+        }
+    }
+
+    // 存活窗口起点（毫秒时间戳）
+    private double windowStart() {
+        return System.currentTimeMillis() - livenessWindow.toMillis();
+    }
+}
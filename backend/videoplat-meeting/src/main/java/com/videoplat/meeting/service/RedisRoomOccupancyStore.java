@@ -0,0 +1,158 @@
+package com.videoplat.meeting.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 基于 Redis 集合的会议室在场人数存储（集群模式，默认实现）
+ *
+ * 每个会议室一个集合 room:occupancy:{会议室主键}，SADD/SREM 保证同一用户重复加入或离开不会重复计数，
+ * 人数通过 SCARD 读取；列表页的多个会议室通过一次管道批量读取。
+ * 加入会议室时的席位预留在一个 Lua 脚本中完成成员检查、人数检查和 SADD，并发加入不会超过上限
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "videoplat.mode", havingValue = "cluster", matchIfMissing = true)
+public class RedisRoomOccupancyStore implements RoomOccupancyStore {
+
+    private static final String OCCUPANCY_KEY_PREFIX = "room:occupancy:";
+
+    // 返回 1 表示预留成功，0 表示已在会议室中，-1 表示人数已满
+    private static final RedisScript<Long> RESERVE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('SISMEMBER', KEYS[1], ARGV[1]) == 1 then return 0 end " +
+            "if redis.call('SCARD', KEYS[1]) >= tonumber(ARGV[2]) then return -1 end " +
+            "redis.call('SADD', KEYS[1], ARGV[1]) " +
+            "return 1",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Override
+    public void add(Long roomId, Long userId) {
+        redisTemplate.opsForSet().add(key(roomId), userId.toString());
+    }
+
+    @Override
+    public Reservation reserve(Long roomId, Long userId, int capacity) {
+        Long result = redisTemplate.execute(RESERVE_SCRIPT, List.of(key(roomId)),
+                userId.toString(), String.valueOf(capacity));
+        if (result == null || result < 0) {
+            return Reservation.FULL;
+        }
+        return result == 0 ? Reservation.ALREADY_PRESENT : Reservation.RESERVED;
+    }
+
+    @Override
+    public void remove(Long roomId, Long userId) {
+        redisTemplate.opsForSet().remove(key(roomId), userId.toString());
+    }
+
+    @Override
+    public void clear(Long roomId) {
+        redisTemplate.delete(key(roomId));
+    }
+
+    @Override
+    public long count(Long roomId) {
+        Long size = redisTemplate.opsForSet().size(key(roomId));
+        return size != null ? size : 0L;
+    }
+
+    @Override
+    public Map<Long, Long> counts(Collection<Long> roomIds) {
+        Map<Long, Long> counts = new HashMap<>();
+        if (roomIds.isEmpty()) {
+            return counts;
+        }
+        List<Long> ids = new ArrayList<>(roomIds);
+        List<Object> sizes = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (Long roomId : ids) {
+                stringConnection.sCard(key(roomId));
+            }
+            return null;
+        });
+        for (int i = 0; i < ids.size(); i++) {
+            Object size = sizes.get(i);
+            counts.put(ids.get(i), size instanceof Long value ? value : 0L);
+        }
+        return counts;
+    }
+
+    @Override
+    public Set<Long> members(Long roomId) {
+        Set<String> members = redisTemplate.opsForSet().members(key(roomId));
+        Set<Long> userIds = new HashSet<>();
+        if (members != null) {
+            for (String member : members) {
+                userIds.add(Long.parseLong(member));
+            }
+        }
+        return userIds;
+    }
+
+    @Override
+    public Map<Long, Set<Long>> members(Collection<Long> roomIds) {
+        Map<Long, Set<Long>> members = new HashMap<>();
+        if (roomIds.isEmpty()) {
+            return members;
+        }
+        List<Long> ids = new ArrayList<>(roomIds);
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (Long roomId : ids) {
+                stringConnection.sMembers(key(roomId));
+            }
+            return null;
+        });
+        for (int i = 0; i < ids.size(); i++) {
+            Set<Long> userIds = new HashSet<>();
+            if (results.get(i) instanceof Collection<?> values) {
+                for (Object value : values) {
+                    userIds.add(Long.parseLong(value.toString()));
+                }
+            }
+            members.put(ids.get(i), userIds);
+        }
+        return members;
+    }
+
+    @Override
+    public void addAll(Long roomId, Collection<Long> userIds) {
+        if (!userIds.isEmpty()) {
+            redisTemplate.opsForSet().add(key(roomId), toStrings(userIds));
+        }
+    }
+
+    @Override
+    public void removeAll(Long roomId, Collection<Long> userIds) {
+        if (!userIds.isEmpty()) {
+            redisTemplate.opsForSet().remove(key(roomId), (Object[]) toStrings(userIds));
+        }
+    }
+
+    private String key(Long roomId) {
+        return OCCUPANCY_KEY_PREFIX + roomId;
+    }
+
+    private String[] toStrings(Collection<Long> userIds) {
+        return userIds.stream().map(String::valueOf).toArray(String[]::new);
+    }
+}
@@ -0,0 +1,245 @@
+package com.videoplat.meeting.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.videoplat.meeting.dto.ChatMessageDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 基于 Redis Streams 的聊天历史存储（默认实现）
+ *
+ * 序号通过 INCR 预先分配，同一会议室的一批消息通过一次 Lua 脚本调用完成 XADD（MAXLEN ~ 近似裁剪），
+ * 过期时间只在会议室首次写入时设置，之后每小时最多续期一次。
+ * 条目 ID 固定为 "序号-0"，游标即消息序号，查询通过 XRANGE/XREVRANGE 按游标分页。
+ * Stream 只能追加更大的 ID：分发管道已保证本节点按序号写入，其他节点的并发写入仍可能使序号
+ * 不大于 Stream 末尾，这类迟到消息以序号为分数写入同一会议室的有序集合，查询时与 Stream 合并后按序号排序
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.chat.store", havingValue = "stream", matchIfMissing = true)
+public class RedisStreamChatHistoryStore implements ChatHistoryStore {
+
+    private static final String CHAT_STREAM_KEY_PREFIX = "chat:stream:";
+    private static final String CHAT_LATE_KEY_PREFIX = "chat:late:";
+    private static final String FIELD_DATA = "data";
+    private static final long CHAT_HISTORY_EXPIRE_SECONDS = TimeUnit.HOURS.toSeconds(24);
+    private static final Duration TTL_REFRESH_INTERVAL = Duration.ofHours(1);
+    // 续期记录的条目上限，被淘汰的会议室下次写入时多续期一次
+    private static final long TTL_REFRESH_MAX_ROOMS = 100_000;
+    private static final int MAX_CHAT_HISTORY_SIZE = 100;
+    private static final Pattern CURSOR_PATTERN = Pattern.compile("\\d+");
+
+    /**
+     * 批量写入：序号大于 Stream 末尾的消息以 "序号-0" 为 ID 追加（MAXLEN ~ 近似裁剪），
+     * 其余写入迟到消息有序集合，并删除其中早于 Stream 最早条目的部分（这些消息由归档表提供）。
+     * KEYS: Stream、迟到消息有序集合；ARGV: MAXLEN、续期秒数（0 表示不续期）、过期秒数，之后为 (序号, JSON) 对
+     */
+    private static final RedisScript<Long> APPEND_SCRIPT = new DefaultRedisScript<>(
+            "local tail = 0 " +
+            "local last = redis.call('XREVRANGE', KEYS[1], '+', '-', 'COUNT', 1) " +
+            "if #last > 0 then " +
+            "  tail = tonumber(string.match(last[1][1], '^(%d+)')) " +
+            "end " +
+            "local late = 0 " +
+            "for i = 4, #ARGV, 2 do " +
+            "  local seq = tonumber(ARGV[i]) " +
+            "  if seq > tail then " +
+            "    redis.call('XADD', KEYS[1], 'MAXLEN', '~', ARGV[1], ARGV[i] .. '-0', 'data', ARGV[i + 1]) " +
+            "    tail = seq " +
+            "  else " +
+            "    redis.call('ZADD', KEYS[2], seq, ARGV[i + 1]) " +
+            "    late = late + 1 " +
+            "  end " +
+            "end " +
+            "if late > 0 or redis.call('EXISTS', KEYS[2]) == 1 then " +
+            "  local first = redis.call('XRANGE', KEYS[1], '-', '+', 'COUNT', 1) " +
+            "  if #first > 0 then " +
+            "    redis.call('ZREMRANGEBYSCORE', KEYS[2], '-inf', '(' .. string.match(first[1][1], '^(%d+)')) " +
+            "  end " +
+            "  if late > 0 then " +
+            "    redis.call('EXPIRE', KEYS[2], ARGV[3]) " +
+            "  end " +
+            "end " +
+            "if ARGV[2] ~= '0' then " +
+            "  redis.call('EXPIRE', KEYS[1], ARGV[2]) " +
+            "end " +
+            "return late",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final RedisChatSequences sequences;
+
+    // 最近一小时内已设置过期时间的会议室，key 为 Stream key；条目写入一小时后过期，
+    // 已结束的会议室不会一直占用内存
+    private final Cache<String, Boolean> ttlRefreshed = Caffeine.newBuilder()
+            .maximumSize(TTL_REFRESH_MAX_ROOMS)
+            .expireAfterWrite(TTL_REFRESH_INTERVAL)
+            .build();
+
+    @Override
+    public long nextSequence(String roomId) {
+        return sequences.next(roomId);
+    }
+
+    @Override
+    public void appendAll(String roomId, List<ChatMessageDTO> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        String streamKey = CHAT_STREAM_KEY_PREFIX + roomId;
+        boolean refreshTtl = shouldRefreshTtl(streamKey);
+
+        List<String> args = new ArrayList<>(3 + messages.size() * 2);
+        args.add(String.valueOf(MAX_CHAT_HISTORY_SIZE));
+        args.add(refreshTtl ? String.valueOf(CHAT_HISTORY_EXPIRE_SECONDS) : "0");
+        args.add(String.valueOf(CHAT_HISTORY_EXPIRE_SECONDS));
+        for (ChatMessageDTO message : messages) {
+            message.setCursor(String.valueOf(message.getId()));
+            try {
+                args.add(String.valueOf(message.getId()));
+                args.add(objectMapper.writeValueAsString(message));
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("序列化聊天消息失败", e);
+            }
+        }
+
+        Long late = stringRedisTemplate.execute(APPEND_SCRIPT,
+                List.of(streamKey, CHAT_LATE_KEY_PREFIX + roomId), args.toArray());
+        if (late != null && late > 0) {
+            log.debug("会议室 {} 有 {} 条消息晚于后续序号到达，写入迟到消息集合", roomId, late);
+        }
+    }
+
+    @Override
+    public long latestSequence(String roomId) {
+        return sequences.latest(roomId);
+    }
+
+    @Override
+    public List<ChatMessageDTO> query(String roomId, String after, String before, int limit) {
+        String key = CHAT_STREAM_KEY_PREFIX + roomId;
+        String lateKey = CHAT_LATE_KEY_PREFIX + roomId;
+        Range<String> range = Range.of(toBound(after), toBound(before));
+        Limit count = Limit.limit().count(limit);
+        boolean forward = after != null && before == null;
+
+        // 迟到消息集合的分数区间，游标不包含在内
+        double minScore = after != null ? Long.parseLong(after) + 1 : Double.NEGATIVE_INFINITY;
+        double maxScore = before != null ? Long.parseLong(before) - 1 : Double.POSITIVE_INFINITY;
+
+        List<MapRecord<String, Object, Object>> records;
+        Set<String> lateMessages;
+        if (forward) {
+            records = stringRedisTemplate.opsForStream().range(key, range, count);
+            lateMessages = stringRedisTemplate.opsForZSet().rangeByScore(lateKey, minScore, maxScore, 0, limit);
+        } else {
+            records = stringRedisTemplate.opsForStream().reverseRange(key, range, count);
+            lateMessages = stringRedisTemplate.opsForZSet().reverseRangeByScore(lateKey, minScore, maxScore, 0, limit);
+        }
+
+        List<ChatMessageDTO> messages = new ArrayList<>();
+        if (records != null) {
+            for (MapRecord<String, Object, Object> record : records) {
+                Object data = record.getValue().get(FIELD_DATA);
+                if (data != null) {
+                    addParsed(messages, roomId, data.toString(), record.getId().getTimestamp());
+                }
+            }
+        }
+        if (lateMessages != null) {
+            for (String data : lateMessages) {
+                addParsed(messages, roomId, data, null);
+            }
+        }
+
+        // 两个来源各取了 limit 条，合并排序后正序查询保留最早的、其他查询保留最新的
+        messages.sort(Comparator.comparing(ChatMessageDTO::getId));
+        List<ChatMessageDTO> result = new ArrayList<>(Math.min(limit, messages.size()));
+        Long previousId = null;
+        for (ChatMessageDTO message : messages) {
+            if (!message.getId().equals(previousId)) {
+                result.add(message);
+                previousId = message.getId();
+            }
+        }
+        if (result.size() > limit) {
+            return forward
+                    ? new ArrayList<>(result.subList(0, limit))
+                    : new ArrayList<>(result.subList(result.size() - limit, result.size()));
+        }
+        return result;
+    }
+
+    @Override
+    public void clear(String roomId) {
+        String key = CHAT_STREAM_KEY_PREFIX + roomId;
+        // 保留序号键，清除后新消息的序号仍然递增，客户端的同步游标不会失效；
+        // 可见起点与序号键一起续期，归档表中更早的消息不会重新出现
+        sequences.markCleared(roomId);
+        stringRedisTemplate.delete(List.of(key, CHAT_LATE_KEY_PREFIX + roomId));
+        ttlRefreshed.invalidate(key);
+    }
+
+    @Override
+    public long clearedSequence(String roomId) {
+        return sequences.cleared(roomId);
+    }
+
+    // 解析一条消息 JSON，旧数据中缺少序号时使用条目 ID
+    private void addParsed(List<ChatMessageDTO> messages, String roomId, String data, Long fallbackId) {
+        try {
+            ChatMessageDTO message = objectMapper.readValue(data, ChatMessageDTO.class);
+            if (message.getId() == null) {
+                if (fallbackId == null) {
+                    return;
+                }
+                message.setId(fallbackId);
+            }
+            message.setCursor(String.valueOf(message.getId()));
+            messages.add(message);
+        } catch (JsonProcessingException e) {
+            log.warn("解析聊天消息失败，会议室: {}", roomId);
+        }
+    }
+
+    // 判断是否需要（重新）设置过期时间，每个会议室每小时最多一次
+    private boolean shouldRefreshTtl(String key) {
+        return ttlRefreshed.asMap().putIfAbsent(key, Boolean.TRUE) == null;
+    }
+
+    // 将游标（消息序号）转换为不包含端点的 Stream 区间边界
+    private Range.Bound<String> toBound(String cursor) {
+        if (cursor == null) {
+            return Range.Bound.unbounded();
+        }
+        if (!CURSOR_PATTERN.matcher(cursor).matches()) {
+            throw new RuntimeException("无效的游标: " + cursor);
+        }
+        return Range.Bound.exclusive(cursor + "-0");
+    }
+}
@@ -0,0 +1,115 @@
+package com.videoplat.meeting.service;
+
+import com.videoplat.domain.entity.Room;
+import com.videoplat.domain.repository.RoomParticipantRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+
+/**
+ * 会议室准入控制
+ *
+ * 写入参与记录之前先通过 {@link RoomOccupancyStore#reserve} 原子地预留席位，
+ * 检查人数和占用席位是一步完成的，并发加入不会超过人数上限，也不需要加锁。
+ * 参与记录通过 INSERT ... ON CONFLICT DO NOTHING 写入，同一用户的并发加入不会触发唯一索引异常；
+ * 预留之后事务回滚时在事务完成回调中释放席位
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Slf4j
+@Service
+public class RoomAdmissionService {
+
+    private final RoomOccupancyStore occupancyStore;
+    private final RoomParticipantRepository participantRepository;
+    private final Counter admittedCounter;
+    private final Counter rejectedCounter;
+    private final Counter releasedCounter;
+
+    public RoomAdmissionService(RoomOccupancyStore occupancyStore,
+                                RoomParticipantRepository participantRepository,
+                                MeterRegistry meterRegistry) {
+        this.occupancyStore = occupancyStore;
+        this.participantRepository = participantRepository;
+        this.admittedCounter = Counter.builder("room.admission")
+                .tag("result", "admitted")
+                .description("会议室准入结果")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("room.admission")
+                .tag("result", "full")
+                .description("会议室准入结果")
+                .register(meterRegistry);
+        this.releasedCounter = Counter.builder("room.admission")
+                .tag("result", "released")
+                .description("会议室准入结果")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 为用户预留席位并写入参与记录，需要在事务中调用
+     *
+     * @param room 会议室
+     * @param userId 用户 ID
+     * @return 是否新写入了参与记录，用户已在会议室中时为 false
+     * @throws RuntimeException 当会议室人数已满时
+     */
+    public boolean admit(Room room, Long userId) {
+        reserve(room, userId);
+
+        // ALREADY_PRESENT 也尝试写入：存储中有而数据库中没有时（对账前的偏差）补齐参与记录
+        int inserted = participantRepository.insertIfNotActive(room.getId(), userId, LocalDateTime.now());
+        if (inserted > 0) {
+            admittedCounter.increment();
+        }
+        return inserted > 0;
+    }
+
+    /**
+     * 只预留席位、不写入参与记录，需要在事务中调用（创建会议室时由调用方写入主持人的参与记录）
+     *
+     * @param room 会议室
+     * @param userId 用户 ID
+     * @throws RuntimeException 当会议室人数已满时
+     */
+    public void reserve(Room room, Long userId) {
+        RoomOccupancyStore.Reservation reservation =
+                occupancyStore.reserve(room.getId(), userId, room.getMaxParticipants());
+        if (reservation == RoomOccupancyStore.Reservation.FULL) {
+            rejectedCounter.increment();
+            throw new RuntimeException("会议室人数已满");
+        }
+
+        // 只释放本次新占用的席位；ALREADY_PRESENT 时席位属于之前的加入请求
+        if (reservation == RoomOccupancyStore.Reservation.RESERVED) {
+            releaseOnRollback(room.getId(), userId);
+        }
+    }
+
+    // 事务回滚时释放预留的席位
+    private void releaseOnRollback(Long roomId, Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    return;
+                }
+                try {
+                    occupancyStore.remove(roomId, userId);
+                    releasedCounter.increment();
+                } catch (Exception e) {
+                    // 释放失败时由对账任务移除
+                    log.warn("释放会议室 {} 用户 {} 的席位失败", roomId, userId, e);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,111 @@
+package com.videoplat.meeting.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * 会议室准入票据服务
+ *
+ * 用户首次通过会议室密码校验后签发一个短期票据，之后重新加入（如断网重连）时携带票据即可跳过 BCrypt。
+ * 票据内容为 会议室 ID:用户 ID:过期时间，签名为 HMAC-SHA256，签名输入还包含会议室当前的密码哈希，
+ * 修改会议室密码后已签发的票据全部失效。票据不保存在服务端，任一节点都能校验
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Slf4j
+@Service
+public class RoomAdmissionTicketService {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    // 签名密钥，默认与 JWT 共用
+    @Value("${app.room.admission-ticket.secret:${app.jwt.secret}}")
+    private String secret;
+
+    // 票据有效期
+    @Value("${app.room.admission-ticket.ttl:PT2H}")
+    private Duration ttl;
+
+    /**
+     * 签发准入票据
+     *
+     * @param roomId 会议室 ID
+     * @param userId 用户 ID
+     * @param passwordHash 会议室当前的密码哈希
+     * @return 票据
+     */
+    public String issue(String roomId, Long userId, String passwordHash) {
+        long expiresAt = System.currentTimeMillis() + ttl.toMillis();
+        String payload = roomId + ":" + userId + ":" + expiresAt;
+        return ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "."
+                + ENCODER.encodeToString(sign(payload, passwordHash));
+    }
+
+    /**
+     * 校验准入票据
+     *
+     * @param ticket 票据，可为空
+     * @param roomId 会议室 ID
+     * @param userId 用户 ID
+     * @param passwordHash 会议室当前的密码哈希
+     * @return 票据属于该用户和会议室、未过期且签名有效时为 true
+     */
+    public boolean verify(String ticket, String roomId, Long userId, String passwordHash) {
+        if (ticket == null || ticket.isEmpty()) {
+            return false;
+        }
+        int dot = ticket.indexOf('.');
+        if (dot <= 0) {
+            return false;
+        }
+        try {
+            String payload = new String(DECODER.decode(ticket.substring(0, dot)), StandardCharsets.UTF_8);
+            String[] parts = payload.split(":");
+            if (parts.length != 3 || !parts[0].equals(roomId) || !parts[1].equals(userId.toString())) {
+                return false;
+            }
+            if (Long.parseLong(parts[2]) < System.currentTimeMillis()) {
+                return false;
+            }
+            byte[] signature = DECODER.decode(ticket.substring(dot + 1));
+            return MessageDigest.isEqual(signature, sign(payload, passwordHash));
+        } catch (IllegalArgumentException e) {
+            // Base64 或过期时间格式错误
+            log.debug("无法解析的会议室准入票据，用户 {}", userId);
+            return false;
+        }
+    }
+
+    /**
+     * 获取票据有效期
+     */
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    private byte[] sign(String payload, String passwordHash) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM));
+            mac.update(payload.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) '\n');
+            mac.update(passwordHash.getBytes(StandardCharsets.UTF_8));
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 不可用", e);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.videoplat.meeting.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.videoplat.common.util.BloomFilter;
+import com.videoplat.domain.cache.RoomChangedEvent;
+import com.videoplat.domain.entity.Room;
+import com.videoplat.domain.repository.RoomRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 会议室本地缓存
+ *
+ * 按会议室 ID 缓存会议室实体的只读副本，查询会议室信息、加入、获取 Token 等只读路径使用；
+ * 修改会议室的路径仍从数据库加载托管实体。会议室变更提交后（{@link RoomChangedEvent}）
+ * 失效本地条目并通过 Redis 发布/订阅通知其他节点，写入过期时间作为兜底。
+ * 所有会议室 ID 记录在布隆过滤器中，但过滤器只作参考：新建会议室通过发布/订阅加入其他节点的过滤器，
+ * 通知可能丢失，因此过滤器判定不存在时仍查询一次数据库，查到则补入过滤器，
+ * 查不到（不存在或猜测的会议室 ID）才写入短时的不存在缓存，之后的同一 ID 直接返回空。
+ * 过滤器定期按主键分页从数据库重建
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Slf4j
+@Component
+public class RoomCache implements MessageListener {
+
+    private static final String CHANNEL = "room:cache";
+    private static final String INVALIDATE_PREFIX = "invalidate:";
+    private static final String CREATED_PREFIX = "created:";
+
+    private final RoomRepository roomRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MeterRegistry meterRegistry;
+    private final Counter rejectedCounter;
+    private final Counter falseNegativeCounter;
+
+    // 开关：关闭后每次都查询数据库
+    @Value("${app.room.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.room.cache.max-size:10000}")
+    private long maxSize;
+
+    // 写入过期时间，兜底未收到的失效通知
+    @Value("${app.room.cache.ttl:PT5M}")
+    private Duration ttl;
+
+    // 不存在的会议室 ID 的缓存时间
+    @Value("${app.room.cache.negative-ttl:PT30S}")
+    private Duration negativeTtl;
+
+    // 布隆过滤器目标误判率
+    @Value("${app.room.cache.bloom-fpp:0.001}")
+    private double bloomFpp;
+
+    // 重建过滤器时每次从数据库读取的会议室数
+    @Value("${app.room.cache.bloom-rebuild-page-size:5000}")
+    private int rebuildPageSize;
+
+    // 集群模式下才通过 Redis 通知其他节点
+    @Value("${videoplat.mode:cluster}")
+    private String mode;
+
+    private Cache<String, Room> cache;
+
+    // 已确认不存在的会议室 ID
+    private Cache<String, Boolean> missingRoomIds;
+    private volatile BloomFilter knownRoomIds;
+
+    // 重建过滤器期间新建的会议室同时写入新过滤器
+    private volatile BloomFilter rebuildingRoomIds;
+
+    public RoomCache(RoomRepository roomRepository,
+                     StringRedisTemplate redisTemplate,
+                     RedisMessageListenerContainer listenerContainer,
+                     MeterRegistry meterRegistry) {
+        this.roomRepository = roomRepository;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.meterRegistry = meterRegistry;
+        this.rejectedCounter = Counter.builder("room.cache.bloom.rejected")
+                .description("命中不存在缓存、未查询数据库的会议室 ID 数")
+                .register(meterRegistry);
+        this.falseNegativeCounter = Counter.builder("room.cache.bloom.repaired")
+                .description("过滤器判定不存在但数据库中存在、已补入过滤器的会议室 ID 数（丢失的新建通知）")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            log.info("会议室缓存已关闭");
+            return;
+        }
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "room");
+        missingRoomIds = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(negativeTtl)
+                .build();
+        if (isCluster()) {
+            listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        }
+        rebuildFilter();
+    }
+
+    /**
+     * 按会议室 ID 查询会议室
+     *
+     * @param roomId 会议室 ID
+     * @return 会议室实体的副本（未托管，修改不会写回数据库），不存在时为空
+     */
+    public Optional<Room> findByRoomId(String roomId) {
+        if (cache == null) {
+            return roomRepository.findByRoomId(roomId);
+        }
+        BloomFilter filter = knownRoomIds;
+        if (filter != null && !filter.mightContain(roomId)) {
+            return findUnknown(roomId);
+        }
+        // 缓存和返回的都是副本，调用方修改实体不会影响缓存
+        Room cached = cache.get(roomId, id -> roomRepository.findByRoomId(id).map(this::copy).orElse(null));
+        return Optional.ofNullable(cached).map(this::copy);
+    }
+
+    // 过滤器判定不存在的 ID：先查不存在缓存，未命中时查询数据库确认
+    private Optional<Room> findUnknown(String roomId) {
+        if (missingRoomIds.getIfPresent(roomId) != null) {
+            rejectedCounter.increment();
+            return Optional.empty();
+        }
+        Optional<Room> room = roomRepository.findByRoomId(roomId);
+        if (room.isEmpty()) {
+            missingRoomIds.put(roomId, Boolean.TRUE);
+            return Optional.empty();
+        }
+        falseNegativeCounter.increment();
+        addKnownRoomId(roomId);
+        Room copy = copy(room.get());
+        cache.put(roomId, copy);
+        return Optional.of(copy(copy));
+    }
+
+    /**
+     * 会议室变更事务提交后失效本地条目并通知其他节点
+     */
+    @EventListener
+    public void onRoomChanged(RoomChangedEvent event) {
+        if (cache == null) {
+            return;
+        }
+        if (event.isCreated()) {
+            addKnownRoomId(event.getRoomId());
+        }
+        cache.invalidate(event.getRoomId());
+        missingRoomIds.invalidate(event.getRoomId());
+        if (isCluster()) {
+            try {
+                String prefix = event.isCreated() ? CREATED_PREFIX : INVALIDATE_PREFIX;
+                redisTemplate.convertAndSend(CHANNEL, prefix + event.getRoomId());
+            } catch (Exception e) {
+                log.warn("发布会议室缓存通知失败，会议室 {}", event.getRoomId(), e);
+            }
+        }
+    }
+
+    /**
+     * 接收其他节点的通知
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (body.startsWith(CREATED_PREFIX)) {
+            String roomId = body.substring(CREATED_PREFIX.length());
+            addKnownRoomId(roomId);
+            cache.invalidate(roomId);
+            missingRoomIds.invalidate(roomId);
+        } else if (body.startsWith(INVALIDATE_PREFIX)) {
+            cache.invalidate(body.substring(INVALIDATE_PREFIX.length()));
+        }
+    }
+
+    /**
+     * 从数据库重建会议室 ID 过滤器，同时按当前会议室数量调整容量
+     */
+    @Scheduled(fixedDelayString = "${app.room.cache.bloom-rebuild-interval:600000}",
+            initialDelayString = "${app.room.cache.bloom-rebuild-interval:600000}")
+    public void rebuildFilter() {
+        if (cache == null) {
+            return;
+        }
+        try {
+            long roomCount = roomRepository.count();
+            BloomFilter filter = new BloomFilter(Math.max(10000L, roomCount * 2), bloomFpp);
+            rebuildingRoomIds = filter;
+            // 按主键分页读取，不把全部会议室 ID 一次加载到内存
+            long total = 0;
+            long afterId = 0L;
+            List<RoomRepository.RoomKey> page;
+            do {
+                page = roomRepository.findRoomKeysAfter(afterId, PageRequest.of(0, rebuildPageSize));
+                for (RoomRepository.RoomKey key : page) {
+                    filter.put(key.getRoomId());
+                }
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).getId();
+                    total += page.size();
+                }
+            } while (page.size() == rebuildPageSize);
+            knownRoomIds = filter;
+            rebuildingRoomIds = null;
+            log.debug("会议室 ID 过滤器已重建，共 {} 个会议室", total);
+        } catch (Exception e) {
+            // 重建失败时保留原过滤器；首次构建失败时不启用过滤
+            rebuildingRoomIds = null;
+            log.error("重建会议室 ID 过滤器失败", e);
+        }
+    }
+
+    private void addKnownRoomId(String roomId) {
+        BloomFilter filter = knownRoomIds;
+        if (filter != null) {
+            filter.put(roomId);
+        }
+        BloomFilter rebuilding = rebuildingRoomIds;
+        if (rebuilding != null) {
+            rebuilding.put(roomId);
+        }
+    }
+
+    private boolean isCluster() {
+        return "cluster".equals(mode);
+    }
+
+    private Room copy(Room room) {
+        return room.toBuilder().build();
+    }
+}
@@ -0,0 +1,168 @@
+package com.videoplat.meeting.service;
+
+import com.videoplat.domain.cache.RoomChangedEvent;
+import com.videoplat.domain.repository.RoomParticipantRepository;
+import com.videoplat.domain.repository.RoomRepository;
+import com.videoplat.meeting.dto.RoomCleanupReport;
+import com.videoplat.meeting.websocket.RoomEventRelay;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 会议室批量清理
+ *
+ * 结束会议室用一条 UPDATE ... RETURNING 完成选择和更新（无人判断为 NOT EXISTS 子查询），
+ * 强制结束时再用一条批量 UPDATE 移出参与者。每次最多处理 chunk-size 个会议室、每块一个短事务，
+ * 不会在整个清理过程中占用数据库连接；SKIP LOCKED 跳过正在被其他事务修改的会议室。
+ * 每块提交后清空在场人数、关闭会议室频道并发布 {@link RoomChangedEvent}（批量更新不触发实体监听器）
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Slf4j
+@Service
+public class RoomCleanupService {
+
+    private final RoomRepository roomRepository;
+    private final RoomParticipantRepository participantRepository;
+    private final RoomOccupancyStore occupancyStore;
+    private final RoomEventRelay roomEventRelay;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    // 每个事务最多结束的会议室数
+    @Value("${app.room.cleanup.chunk-size:500}")
+    private int chunkSize;
+
+    public RoomCleanupService(RoomRepository roomRepository,
+                              RoomParticipantRepository participantRepository,
+                              RoomOccupancyStore occupancyStore,
+                              RoomEventRelay roomEventRelay,
+                              ApplicationEventPublisher eventPublisher,
+                              TransactionTemplate transactionTemplate,
+                              MeterRegistry meterRegistry) {
+        this.roomRepository = roomRepository;
+        this.participantRepository = participantRepository;
+        this.occupancyStore = occupancyStore;
+        this.roomEventRelay = roomEventRelay;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 结束创建时间早于指定时间且无人的活跃会议室
+     *
+     * @param type 清理类型，用于日志和指标
+     * @param createdBefore 创建时间上限
+     * @return 清理结果
+     */
+    public RoomCleanupReport endEmptyRooms(String type, LocalDateTime createdBefore) {
+        return endEmptyRooms(type, createdBefore, 1, 0);
+    }
+
+    /**
+     * 结束一个分片内创建时间早于指定时间且无人的活跃会议室
+     *
+     * @param type 清理类型，用于日志和指标
+     * @param createdBefore 创建时间上限
+     * @param shardCount 分片数
+     * @param shard 分片序号，只处理主键对分片数取模等于该值的会议室
+     * @return 清理结果
+     */
+    public RoomCleanupReport endEmptyRooms(String type, LocalDateTime createdBefore, int shardCount, int shard) {
+        return run(type, false, now ->
+                roomRepository.endEmptyActiveRooms(createdBefore, now, shardCount, shard, chunkSize));
+    }
+
+    /**
+     * 结束全部活跃会议室并移出所有参与者
+     *
+     * @param type 清理类型，用于日志和指标
+     * @return 清理结果
+     */
+    public RoomCleanupReport endAllRooms(String type) {
+        return run(type, true, now -> roomRepository.endActiveRooms(now, chunkSize));
+    }
+
+    private RoomCleanupReport run(String type, boolean releaseParticipants, ChunkQuery query) {
+        long start = System.nanoTime();
+        int roomsEnded = 0;
+        int participantsReleased = 0;
+        int chunks = 0;
+
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            int[] released = new int[1];
+            List<RoomRepository.EndedRoom> ended = transactionTemplate.execute(status -> {
+                List<RoomRepository.EndedRoom> rooms = query.endChunk(now);
+                if (releaseParticipants && !rooms.isEmpty()) {
+                    released[0] = participantRepository.markLeftByRoomIds(
+                            rooms.stream().map(RoomRepository.EndedRoom::getId).toList(), now);
+                }
+                return rooms;
+            });
+            if (ended == null || ended.isEmpty()) {
+                break;
+            }
+            chunks++;
+            roomsEnded += ended.size();
+            participantsReleased += released[0];
+            afterChunkCommitted(ended);
+            if (ended.size() < chunkSize) {
+                break;
+            }
+        }
+
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Timer.builder("room.cleanup")
+                .tag("type", type)
+                .description("会议室批量清理耗时")
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("room.cleanup.rooms", "type", type).increment(roomsEnded);
+
+        RoomCleanupReport report = RoomCleanupReport.builder()
+                .type(type)
+                .roomsEnded(roomsEnded)
+                .participantsReleased(participantsReleased)
+                .chunks(chunks)
+                .durationMillis(durationMillis)
+                .build();
+        if (roomsEnded > 0 || !"inactive".equals(type)) {
+            log.info("会议室清理完成 [{}]: 结束 {} 个会议室，移出 {} 条参与记录，{} 个分块，耗时 {} ms",
+                    type, roomsEnded, participantsReleased, chunks, durationMillis);
+        }
+        return report;
+    }
+
+    // 分块提交后同步在场人数、关闭频道、失效会议室缓存
+    private void afterChunkCommitted(List<RoomRepository.EndedRoom> ended) {
+        for (RoomRepository.EndedRoom room : ended) {
+            try {
+                occupancyStore.clear(room.getId());
+                roomEventRelay.closeRoom(room.getRoomId());
+                eventPublisher.publishEvent(new RoomChangedEvent(room.getRoomId(), false));
+            } catch (Exception e) {
+                // 在场人数由对账任务修正，会议室缓存由过期时间兜底
+                log.warn("会议室 {} 结束后的通知失败", room.getRoomId(), e);
+            }
+        }
+    }
+
+    // 结束一块会议室的查询
+    @FunctionalInterface
+    private interface ChunkQuery {
+        List<RoomRepository.EndedRoom> endChunk(LocalDateTime now);
+    }
+}
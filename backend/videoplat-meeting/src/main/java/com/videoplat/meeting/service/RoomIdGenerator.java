@@ -0,0 +1,145 @@
+package com.videoplat.meeting.service;
+
+import com.videoplat.domain.repository.IdBlockRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 会议室 ID 生成器
+ *
+ * 序号按号段从 id_blocks 表分配，每个节点一次取走 block-size 个，号段之间不重叠，
+ * 生成的 ID 在集群内天然唯一，创建会议室时不需要查询数据库判重。
+ * 序号先经过 52 位的 Feistel 置换打散（一一映射，相邻序号得到的 ID 看不出先后），
+ * 再编码为固定 9 位的 base62 字符串，与旧的 8 位十六进制 ID 长度不同，不会冲突。
+ * 各轮密钥由配置的置换密钥经 HMAC-SHA256 派生，密钥没有默认值，未配置时启动失败，
+ * 不知道密钥就无法从 ID 推算序号或预测其他会议室的 ID。
+ * 节点重启时未用完的号段直接丢弃
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Slf4j
+@Component
+public class RoomIdGenerator {
+
+    // id_blocks 表中的编号名称
+    private static final String BLOCK_NAME = "room_id";
+
+    private static final char[] ALPHABET =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+
+    // 62^9 > 2^52，52 位的置换结果编码后不超过 9 位
+    private static final int ID_LENGTH = 9;
+    private static final int HALF_BITS = 26;
+    private static final long HALF_MASK = (1L << HALF_BITS) - 1;
+    private static final long MAX_SEQUENCE = 1L << (HALF_BITS * 2);
+    private static final int ROUNDS = 4;
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    // 派生轮密钥时的消息，一次 HMAC-SHA256 的 32 字节正好是 4 个 64 位轮密钥
+    private static final String ROUND_KEY_CONTEXT = "videoplat-room-id-feistel";
+    private static final int MIN_KEY_LENGTH = 16;
+
+    private final IdBlockRepository idBlockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long[] roundKeys = new long[ROUNDS];
+
+    // 每次从数据库分配的序号个数
+    @Value("${app.room.id.block-size:1000}")
+    private long blockSize;
+
+    // 当前号段中下一个可用的序号和号段结束值（不含）
+    private long next;
+    private long blockEnd;
+
+    public RoomIdGenerator(IdBlockRepository idBlockRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.room.id.key}") String key) {
+        this.idBlockRepository = idBlockRepository;
+        // 号段分配使用独立事务：创建会议室的事务回滚时已分配的号段不能回收，否则会被其他节点重复取得
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        deriveRoundKeys(key);
+    }
+
+    /**
+     * 生成新的会议室 ID
+     *
+     * @return 9 位 base62 字符串
+     */
+    public synchronized String nextRoomId() {
+        if (next >= blockEnd) {
+            allocateBlock();
+        }
+        return encode(permute(next++));
+    }
+
+    private void allocateBlock() {
+        Long end = transactionTemplate.execute(status -> idBlockRepository.allocate(BLOCK_NAME, blockSize));
+        if (end == null || end > MAX_SEQUENCE) {
+            throw new RuntimeException("会议室 ID 号段已用尽");
+        }
+        next = end - blockSize;
+        blockEnd = end;
+        log.info("分配会议室 ID 号段 [{}, {})", next, blockEnd);
+    }
+
+    // 用完整密钥做 HMAC-SHA256，结果按 8 字节切分为各轮密钥
+    private void deriveRoundKeys(String key) {
+        if (key == null || key.length() < MIN_KEY_LENGTH) {
+            throw new RuntimeException("会议室 ID 置换密钥 app.room.id.key 未配置或长度不足 " + MIN_KEY_LENGTH + " 个字符");
+        }
+        byte[] digest;
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM));
+            digest = mac.doFinal(ROUND_KEY_CONTEXT.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("无法初始化会议室 ID 置换密钥", e);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(digest);
+        for (int i = 0; i < ROUNDS; i++) {
+            roundKeys[i] = buffer.getLong();
+        }
+    }
+
+    // 4 轮 Feistel 置换，对 [0, 2^52) 一一映射
+    private long permute(long value) {
+        long left = (value >>> HALF_BITS) & HALF_MASK;
+        long right = value & HALF_MASK;
+        for (long roundKey : roundKeys) {
+            long mixed = left ^ (mix(right ^ roundKey) & HALF_MASK);
+            left = right;
+            right = mixed;
+        }
+        return (left << HALF_BITS) | right;
+    }
+
+    private static String encode(long value) {
+        char[] chars = new char[ID_LENGTH];
+        for (int i = ID_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (value % ALPHABET.length)];
+            value /= ALPHABET.length;
+        }
+        return new String(chars);
+    }
+
+    // SplitMix64 的混淆函数
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
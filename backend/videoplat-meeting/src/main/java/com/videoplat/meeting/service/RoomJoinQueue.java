@@ -0,0 +1,314 @@
+package com.videoplat.meeting.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.videoplat.common.exception.RateLimitedException;
+import com.videoplat.meeting.dto.JoinRoomRequest;
+import com.videoplat.meeting.dto.JoinRoomResponse;
+import com.videoplat.meeting.dto.WsFrame;
+import com.videoplat.meeting.websocket.WebSocketSessionRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 会议室加入排队
+ *
+ * 加入请求按固定速率准入，避免集中加入时占满数据库连接池、请求堆积在 Tomcat 线程上。
+ * 有空闲准入额度且该会议室没有排队请求时直接在请求线程上加入；否则进入会议室的等待队列，
+ * 由本服务的工作线程按速率依次处理，各会议室按入队顺序交替出队。
+ * 排队中的用户通过 WebSocket 收到 join_queue 帧（当前位置和队列长度），
+ * 队列已满时立即返回 429 并带上建议的重试等待时间
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Slf4j
+@Service
+public class RoomJoinQueue {
+
+    private final RoomService roomService;
+    private final WebSocketSessionRegistry sessionRegistry;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    // 各会议室的等待队列，key 为会议室 ID
+    private final Map<String, Deque<PendingJoin>> queues = new ConcurrentHashMap<>();
+
+    // 有排队请求的会议室，工作线程从这里轮流取出
+    private final BlockingQueue<String> readyRooms = new LinkedBlockingQueue<>();
+
+    private final AtomicInteger queuedCount = new AtomicInteger();
+
+    // 是否启用排队，关闭后所有加入请求直接处理
+    @Value("${app.room.join-queue.enabled:true}")
+    private boolean enabled;
+
+    // 每秒准入的加入请求数（本节点）
+    @Value("${app.room.join-queue.admit-rate:50}")
+    private int admitRate;
+
+    // 单个会议室最多排队的请求数
+    @Value("${app.room.join-queue.max-size:200}")
+    private int maxSize;
+
+    // 处理排队请求的工作线程数，应小于数据库连接池大小
+    @Value("${app.room.join-queue.workers:4}")
+    private int workers;
+
+    // 排队请求的最长等待时间，超时后返回 429
+    @Value("${app.room.join-queue.max-wait:PT25S}")
+    private Duration maxWait;
+
+    private AdmissionRate rate;
+    private final List<Thread> workerThreads = new ArrayList<>();
+    private volatile boolean running;
+
+    public RoomJoinQueue(RoomService roomService,
+                         WebSocketSessionRegistry sessionRegistry,
+                         ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry) {
+        this.roomService = roomService;
+        this.sessionRegistry = sessionRegistry;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        rate = new AdmissionRate(admitRate);
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            Thread thread = new Thread(this::runWorker, "room-join-queue-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            workerThreads.add(thread);
+        }
+        Gauge.builder("room.join-queue.size", queuedCount, AtomicInteger::get)
+                .description("排队等待加入会议室的请求数")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        workerThreads.forEach(Thread::interrupt);
+        // 停止时仍在排队的请求返回 429，客户端稍后重试
+        queues.values().forEach(queue -> {
+            PendingJoin pending;
+            while ((pending = queue.pollFirst()) != null) {
+                pending.future.completeExceptionally(new RateLimitedException("服务正在重启，请稍后重试", 1));
+            }
+        });
+    }
+
+    /**
+     * 提交加入请求
+     *
+     * @param roomId 会议室 ID
+     * @param request 加入会议室请求
+     * @param userId 用户 ID
+     * @return 加入完成或失败时结束的 future；取消后排队中的请求不再处理
+     * @throws RateLimitedException 当会议室的等待队列已满时
+     */
+    public CompletableFuture<JoinRoomResponse> submit(String roomId, JoinRoomRequest request, Long userId) {
+        Deque<PendingJoin> current = queues.get(roomId);
+        if (!enabled || ((current == null || current.isEmpty()) && rate.tryAcquire())) {
+            return joinNow(roomId, request, userId);
+        }
+
+        // 在 compute 中入队，避免与清理空队列并发时写入已被移除的队列
+        PendingJoin pending = new PendingJoin(roomId, request, userId);
+        int[] queued = new int[1];
+        Deque<PendingJoin> queue = queues.compute(roomId, (id, existing) -> {
+            Deque<PendingJoin> target = existing != null ? existing : new ConcurrentLinkedDeque<>();
+            queued[0] = target.size();
+            if (queued[0] < maxSize) {
+                target.addLast(pending);
+            }
+            return target;
+        });
+        if (queued[0] >= maxSize) {
+            throw new RateLimitedException("会议室加入排队人数已满，请稍后重试", retryAfterSeconds(queued[0]));
+        }
+
+        queuedCount.incrementAndGet();
+        readyRooms.add(roomId);
+        pending.future.whenComplete((result, ex) -> {
+            // 等待超时被取消时从队列中移除，已被工作线程取出的不会重复计数
+            if (queue.remove(pending)) {
+                queuedCount.decrementAndGet();
+            }
+        });
+        notifyPosition(pending, queued[0] + 1, queued[0] + 1);
+        return pending.future;
+    }
+
+    /**
+     * 定期向排队中的用户推送当前位置，位置未变化时不推送
+     */
+    @Scheduled(fixedDelayString = "${app.room.join-queue.position-interval:1000}")
+    public void pushPositions() {
+        queues.forEach((roomId, queue) -> {
+            if (queue.isEmpty()) {
+                queues.computeIfPresent(roomId, (id, existing) -> existing.isEmpty() ? null : existing);
+                return;
+            }
+            List<PendingJoin> snapshot = new ArrayList<>(queue);
+            for (int i = 0; i < snapshot.size(); i++) {
+                PendingJoin pending = snapshot.get(i);
+                if (pending.lastPosition != i + 1) {
+                    notifyPosition(pending, i + 1, snapshot.size());
+                }
+            }
+        });
+    }
+
+    /**
+     * 建议的重试等待秒数：按准入速率处理完会议室当前队列所需的时间
+     *
+     * @param roomId 会议室 ID
+     * @return 秒数，至少为 1
+     */
+    public long retryAfterSeconds(String roomId) {
+        Deque<PendingJoin> queue = queues.get(roomId);
+        return retryAfterSeconds(queue != null ? queue.size() : 0);
+    }
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    private long retryAfterSeconds(int queued) {
+        return Math.max(1, (queued + admitRate - 1) / admitRate);
+    }
+
+    private void runWorker() {
+        while (running) {
+            try {
+                // 每个入队请求对应 readyRooms 中的一个条目，按入队顺序在各会议室之间交替出队
+                String roomId = readyRooms.take();
+                Deque<PendingJoin> queue = queues.get(roomId);
+                PendingJoin pending = queue != null ? queue.pollFirst() : null;
+                if (pending == null) {
+                    continue;
+                }
+                queuedCount.decrementAndGet();
+                // 已取消（等待超时）的请求不占用准入额度
+                if (pending.future.isDone()) {
+                    continue;
+                }
+                rate.acquire();
+                if (pending.future.isDone()) {
+                    continue;
+                }
+                try {
+                    pending.future.complete(roomService.joinRoom(pending.roomId, pending.request, pending.userId));
+                } catch (RuntimeException e) {
+                    pending.future.completeExceptionally(e);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("处理会议室加入排队请求失败", e);
+            }
+        }
+    }
+
+    private CompletableFuture<JoinRoomResponse> joinNow(String roomId, JoinRoomRequest request, Long userId) {
+        try {
+            return CompletableFuture.completedFuture(roomService.joinRoom(roomId, request, userId));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void notifyPosition(PendingJoin pending, int position, int queued) {
+        pending.lastPosition = position;
+        try {
+            String frame = objectMapper.writeValueAsString(WsFrame.builder()
+                    .type(WsFrame.TYPE_JOIN_QUEUE)
+                    .roomId(pending.roomId)
+                    .data(Map.of("position", position, "queued", queued))
+                    .build());
+            // 同一会议室的位置更新只保留最新一条
+            sessionRegistry.sendMessageToUser(pending.userId, frame, "join_queue:" + pending.roomId);
+        } catch (Exception e) {
+            log.debug("推送排队位置失败，用户 {}", pending.userId, e);
+        }
+    }
+
+    // 排队中的加入请求
+    private static class PendingJoin {
+        final String roomId;
+        final JoinRoomRequest request;
+        final Long userId;
+        final CompletableFuture<JoinRoomResponse> future = new CompletableFuture<>();
+        volatile int lastPosition;
+
+        PendingJoin(String roomId, JoinRoomRequest request, Long userId) {
+            this.roomId = roomId;
+            this.request = request;
+            this.userId = userId;
+        }
+    }
+
+    /**
+     * 令牌桶：每秒补充 ratePerSecond 个令牌，最多积累一秒的量
+     *
+     * nextFreeAt 为不考虑积累时下一个令牌的可用时间，超前当前时间不超过一秒即可取得令牌
+     */
+    private static class AdmissionRate {
+
+        private final long intervalNanos;
+        private final long burstNanos;
+        private long nextFreeAt;
+
+        AdmissionRate(int ratePerSecond) {
+            this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, ratePerSecond);
+            this.burstNanos = TimeUnit.SECONDS.toNanos(1);
+            this.nextFreeAt = System.nanoTime();
+        }
+
+        synchronized boolean tryAcquire() {
+            long now = System.nanoTime();
+            long start = Math.max(nextFreeAt, now);
+            if (start - now > burstNanos) {
+                return false;
+            }
+            nextFreeAt = start + intervalNanos;
+            return true;
+        }
+
+        void acquire() throws InterruptedException {
+            long waitNanos;
+            synchronized (this) {
+                long now = System.nanoTime();
+                long start = Math.max(nextFreeAt, now);
+                nextFreeAt = start + intervalNanos;
+                waitNanos = start - burstNanos - now;
+            }
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        }
+    }
+}
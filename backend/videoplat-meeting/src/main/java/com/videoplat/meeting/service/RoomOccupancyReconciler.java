@@ -0,0 +1,107 @@
+package com.videoplat.meeting.service;
+
+import com.videoplat.domain.enums.RoomStatus;
+import com.videoplat.domain.repository.RoomParticipantRepository;
+import com.videoplat.domain.repository.RoomRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 会议室在场人数对账任务
+ *
+ * 定期将 {@link RoomOccupancyStore} 与 room_participants 表中的当前参与者对齐：
+ * 数据库中有而存储中缺失的成员立即补齐；存储中多出的成员可能是刚加入、事务尚未提交的用户，
+ * 连续两轮对账都多出时才移除。会议室按主键分片，由 {@link JobCoordinator} 分配给各节点；
+ * 分片内的会议室主键由数据库按取模条件筛选，参与者和在场用户按批读取
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoomOccupancyReconciler {
+
+    // 每批对账的会议室数，参与者查询和在场用户读取按批进行
+    private static final int BATCH_SIZE = 500;
+
+    private final RoomRepository roomRepository;
+    private final RoomParticipantRepository participantRepository;
+    private final RoomOccupancyStore occupancyStore;
+    private final JobCoordinator jobCoordinator;
+
+    // 上一轮对账中多出的成员，key 为会议室主键
+    private final Map<Long, Set<Long>> suspectedStale = new ConcurrentHashMap<>();
+
+    /**
+     * 按会议室主键分片对账，每个节点只处理持有租约的分片
+     */
+    @Scheduled(fixedDelayString = "${app.room.occupancy.reconcile-interval:300000}")
+    public void reconcile() {
+        jobCoordinator.runSharded("room-occupancy-reconcile", jobCoordinator.getShards(), this::reconcileShard);
+    }
+
+    private String reconcileShard(int shard, int shardCount) {
+        // 分片条件在数据库中计算，只取主键
+        List<Long> roomIds = roomRepository.findIdsByStatusInShard(RoomStatus.ACTIVE, shardCount, shard);
+        Set<Long> activeIds = new HashSet<>(roomIds);
+        // 已结束会议室的记录不再需要
+        suspectedStale.keySet().removeIf(id -> Math.floorMod(id, shardCount) == shard && !activeIds.contains(id));
+        if (roomIds.isEmpty()) {
+            return "无活跃会议室";
+        }
+
+        int added = 0;
+        int removed = 0;
+        for (int from = 0; from < roomIds.size(); from += BATCH_SIZE) {
+            List<Long> batch = roomIds.subList(from, Math.min(roomIds.size(), from + BATCH_SIZE));
+            // 每批会议室的参与者和在场用户各读取一次
+            Map<Long, Set<Long>> expected = participantRepository.findActiveMemberships(batch).stream()
+                    .collect(Collectors.groupingBy(RoomParticipantRepository.Membership::getRoomId,
+                            Collectors.mapping(RoomParticipantRepository.Membership::getUserId, Collectors.toSet())));
+            Map<Long, Set<Long>> stored = occupancyStore.members(batch);
+
+            for (Long roomId : batch) {
+                Set<Long> dbMembers = expected.getOrDefault(roomId, Set.of());
+                Set<Long> storedMembers = stored.getOrDefault(roomId, Set.of());
+
+                Set<Long> missing = new HashSet<>(dbMembers);
+                missing.removeAll(storedMembers);
+                occupancyStore.addAll(roomId, missing);
+                added += missing.size();
+
+                Set<Long> extra = new HashSet<>(storedMembers);
+                extra.removeAll(dbMembers);
+                if (extra.isEmpty()) {
+                    suspectedStale.remove(roomId);
+                    continue;
+                }
+                Set<Long> confirmed = new HashSet<>(extra);
+                confirmed.retainAll(suspectedStale.getOrDefault(roomId, Set.of()));
+                occupancyStore.removeAll(roomId, confirmed);
+                removed += confirmed.size();
+
+                extra.removeAll(confirmed);
+                if (extra.isEmpty()) {
+                    suspectedStale.remove(roomId);
+                } else {
+                    suspectedStale.put(roomId, extra);
+                }
+            }
+        }
+
+        if (added > 0 || removed > 0) {
+            log.warn("会议室在场人数对账完成（分片 {}），补齐 {} 人，移除 {} 人", shard, added, removed);
+        }
+        return "对账 " + roomIds.size() + " 个会议室，补齐 " + added + " 人，移除 " + removed + " 人";
+    }
+}
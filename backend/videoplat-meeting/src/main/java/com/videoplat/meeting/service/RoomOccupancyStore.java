@@ -0,0 +1,112 @@
+package com.videoplat.meeting.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 会议室实时在场人数存储
+ *
+ * 每个会议室维护一个在场用户集合，人数即集合大小，加入、离开、结束会议室时同步更新，
+ * 容量检查和 DTO 中的人数直接读取这里，不再统计 room_participants 表。
+ * 通过 videoplat.mode 选择实现：cluster（Redis，默认）或 standalone（进程内）；
+ * 与数据库的偏差由 {@link RoomOccupancyReconciler} 定期修正
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+public interface RoomOccupancyStore {
+
+    /**
+     * 记录用户进入会议室
+     *
+     * @param roomId 会议室主键
+     * @param userId 用户 ID
+     */
+    void add(Long roomId, Long userId);
+
+    /**
+     * 原子地为用户预留席位：用户已在集合中时不占用新席位，人数未达上限时加入集合
+     *
+     * @param roomId 会议室主键
+     * @param userId 用户 ID
+     * @param capacity 会议室人数上限
+     * @return 预留结果
+     */
+    Reservation reserve(Long roomId, Long userId, int capacity);
+
+    /**
+     * 记录用户离开会议室
+     *
+     * @param roomId 会议室主键
+     * @param userId 用户 ID
+     */
+    void remove(Long roomId, Long userId);
+
+    /**
+     * 清空会议室（会议结束时调用）
+     *
+     * @param roomId 会议室主键
+     */
+    void clear(Long roomId);
+
+    /**
+     * 获取会议室当前人数
+     *
+     * @param roomId 会议室主键
+     * @return 在场人数
+     */
+    long count(Long roomId);
+
+    /**
+     * 批量获取多个会议室的当前人数
+     *
+     * @param roomIds 会议室主键集合
+     * @return 会议室主键到人数的映射
+     */
+    Map<Long, Long> counts(Collection<Long> roomIds);
+
+    /**
+     * 获取会议室的在场用户
+     *
+     * @param roomId 会议室主键
+     * @return 用户 ID 集合
+     */
+    Set<Long> members(Long roomId);
+
+    /**
+     * 批量获取多个会议室的在场用户
+     *
+     * @param roomIds 会议室主键集合
+     * @return 会议室主键到用户 ID 集合的映射，每个会议室都有对应的集合（可能为空）
+     */
+    Map<Long, Set<Long>> members(Collection<Long> roomIds);
+
+    /**
+     * 批量记录用户进入会议室（对账时补齐缺失的成员）
+     *
+     * @param roomId 会议室主键
+     * @param userIds 用户 ID 集合
+     */
+    void addAll(Long roomId, Collection<Long> userIds);
+
+    /**
+     * 批量移除会议室中的用户（对账时移除多余的成员）
+     *
+     * @param roomId 会议室主键
+     * @param userIds 用户 ID 集合
+     */
+    void removeAll(Long roomId, Collection<Long> userIds);
+
+    /**
+     * 席位预留结果
+     */
+    enum Reservation {
+        // 新占用了一个席位
+        RESERVED,
+        // 用户已在会议室中，未占用新席位
+        ALREADY_PRESENT,
+        // 会议室人数已满
+        FULL
+    }
+}
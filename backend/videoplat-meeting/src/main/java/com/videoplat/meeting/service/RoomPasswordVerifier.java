@@ -0,0 +1,101 @@
+package com.videoplat.meeting.service;
+
+import com.videoplat.common.exception.RateLimitedException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 会议室密码校验
+ *
+ * BCrypt 校验每次约 50–100 ms CPU，在固定大小的线程池中执行，同时进行的校验不超过线程数，
+ * 集中重连时不会占满所有 CPU 和请求线程；等待队列已满时返回 429
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Slf4j
+@Service
+public class RoomPasswordVerifier {
+
+    private final PasswordEncoder passwordEncoder;
+
+    // 校验线程数
+    @Value("${app.room.password-verify.threads:2}")
+    private int threads;
+
+    // 等待校验的最大请求数
+    @Value("${app.room.password-verify.queue-capacity:100}")
+    private int queueCapacity;
+
+    // 单次校验的最长等待时间（含排队）
+    @Value("${app.room.password-verify.timeout:PT5S}")
+    private Duration timeout;
+
+    private ThreadPoolExecutor executor;
+
+    public RoomPasswordVerifier(PasswordEncoder passwordEncoder) {
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger index = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "room-password-verify-" + index.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 校验会议室密码
+     *
+     * @param rawPassword 用户输入的密码
+     * @param passwordHash 会议室密码哈希
+     * @return 密码是否正确
+     * @throws RateLimitedException 当等待校验的请求过多或校验超时时
+     */
+    public boolean matches(String rawPassword, String passwordHash) {
+        Future<Boolean> future;
+        try {
+            future = executor.submit(() -> passwordEncoder.matches(rawPassword, passwordHash));
+        } catch (RejectedExecutionException e) {
+            throw new RateLimitedException("会议室密码校验繁忙，请稍后重试", 1);
+        }
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new RateLimitedException("会议室密码校验繁忙，请稍后重试", 1);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("会议室密码校验被中断");
+        } catch (ExecutionException e) {
+            log.error("会议室密码校验失败", e.getCause());
+            throw new RuntimeException("会议室密码校验失败");
+        }
+    }
+}
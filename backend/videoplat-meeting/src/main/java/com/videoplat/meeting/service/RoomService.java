@@ -3,11 +3,11 @@ package com.videoplat.meeting.service;
 import com.videoplat.meeting.dto.*;
 import com.videoplat.domain.entity.Room;
 import com.videoplat.domain.entity.RoomParticipant;
-import com.videoplat.domain.entity.User;
 import com.videoplat.domain.enums.RoomStatus;
 import com.videoplat.domain.repository.RoomParticipantRepository;
 import com.videoplat.domain.repository.RoomRepository;
-import com.videoplat.domain.repository.UserRepository;
+import com.videoplat.meeting.websocket.RoomEventRelay;
+import io.agora.media.RtcTokenBuilder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -15,10 +15,11 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -35,10 +36,20 @@ import java.util.stream.Collectors;
 public class RoomService {
 
     private final RoomRepository roomRepository;
+    private final RoomCache roomCache;
     private final RoomParticipantRepository participantRepository;
-    private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final AgoraService agoraService;
+    private final RoomEventRelay roomEventRelay;
+    private final RoomOccupancyStore occupancyStore;
+    private final RoomAdmissionService roomAdmissionService;
+    private final RoomAdmissionTicketService admissionTicketService;
+    private final RoomPasswordVerifier passwordVerifier;
+    private final AgoraTokenRenewalService tokenRenewalService;
+    private final RoomCleanupService roomCleanupService;
+    private final JobCoordinator jobCoordinator;
+    private final RoomIdGenerator roomIdGenerator;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${app.room.max-participants}")
     private Integer maxParticipants;
@@ -46,6 +57,10 @@ public class RoomService {
     @Value("${app.room.max-concurrent-rooms}")
     private Integer maxConcurrentRooms;
 
+    // 单次批量生成 Agora Token 的最大数量
+    @Value("${app.agora.batch-max-size:500}")
+    private Integer maxBatchTokens;
+
     /**
      * 创建会议室
      *
@@ -62,8 +77,8 @@ public class RoomService {
             throw new RuntimeException("当前活跃会议室数量已达上限");
         }
 
-        // 生成唯一的会议室 ID
-        String roomId = generateRoomId();
+        // 生成唯一的会议室 ID（号段分配，不需要查询数据库判重）
+        String roomId = roomIdGenerator.nextRoomId();
 
         // 创建会议室
         Room room = Room.builder()
@@ -82,7 +97,8 @@ public class RoomService {
 
         room = roomRepository.save(room);
 
-        // 创建者自动加入会议室
+        // 创建者自动加入会议室：与普通加入一样先预留席位（检查人数上限），事务回滚时释放
+        roomAdmissionService.reserve(room, creatorId);
         RoomParticipant participant = RoomParticipant.builder()
                 .roomId(room.getId())
                 .userId(creatorId)
@@ -90,7 +106,11 @@ public class RoomService {
                 .build();
         participantRepository.save(participant);
 
-        return convertToDto(room);
+        // 事务提交后再加入消息频道，回滚时不留下不存在的会议室
+        AfterCommit.run(() -> roomEventRelay.joinRoom(roomId, creatorId));
+
+        // 新会议室中只有创建者一人
+        return convertToDto(room, 1);
     }
 
     /**
@@ -102,7 +122,7 @@ public class RoomService {
      */
     @Transactional(readOnly = true)
     public RoomDto getRoomInfo(String roomId) {
-        Room room = roomRepository.findByRoomId(roomId)
+        Room room = roomCache.findByRoomId(roomId)
                 .orElseThrow(() -> new RuntimeException("会议室不存在"));
         return convertToDto(room);
     }
@@ -110,46 +130,47 @@ public class RoomService {
     /**
      * 加入会议室
      *
+     * 密码校验（BCrypt 可能排队数秒）在事务之外完成，只有写入参与记录时才占用数据库连接；
+     * 事务提交后再加入会议室消息频道
+     *
      * @param roomId 会议室 ID
      * @param request 加入会议室请求，包含密码（如果需要）
      * @param userId 用户 ID
+     * @return 加入结果，有密码的会议室包含准入票据
      * @throws RuntimeException 当会议室不存在、已结束、密码错误或人数已满时
      */
-    @Transactional
-    public void joinRoom(String roomId, JoinRoomRequest request, Long userId) {
-        Room room = roomRepository.findByRoomId(roomId)
+    public JoinRoomResponse joinRoom(String roomId, JoinRoomRequest request, Long userId) {
+        Room room = roomCache.findByRoomId(roomId)
                 .orElseThrow(() -> new RuntimeException("会议室不存在"));
 
         if (room.getStatus() != RoomStatus.ACTIVE) {
             throw new RuntimeException("会议室已结束");
         }
 
-        // 检查密码
+        // 检查密码：持有有效准入票据时跳过 BCrypt，否则校验密码并签发新票据
+        JoinRoomResponse response = new JoinRoomResponse();
         if (room.getPasswordHash() != null) {
-            if (request.getPassword() == null ||
-                !passwordEncoder.matches(request.getPassword(), room.getPasswordHash())) {
-                throw new RuntimeException("会议室密码错误");
+            String ticket = request.getAdmissionTicket();
+            if (!admissionTicketService.verify(ticket, roomId, userId, room.getPasswordHash())) {
+                if (request.getPassword() == null ||
+                    !passwordVerifier.matches(request.getPassword(), room.getPasswordHash())) {
+                    throw new RuntimeException("会议室密码错误");
+                }
+                ticket = admissionTicketService.issue(roomId, userId, room.getPasswordHash());
             }
+            response.setAdmissionTicket(ticket);
+            response.setTicketExpiresIn(admissionTicketService.getTtl().toSeconds());
         }
 
-        // 检查是否已在会议室中
-        if (participantRepository.findByRoomIdAndUserIdAndLeftAtIsNull(room.getId(), userId).isPresent()) {
-            return; // 已经在会议室中
-        }
-
-        // 检查人数限制
-        long currentParticipants = participantRepository.countByRoomIdAndLeftAtIsNull(room.getId());
-        if (currentParticipants >= room.getMaxParticipants()) {
-            throw new RuntimeException("会议室人数已满");
-        }
-
-        // 加入会议室
-        RoomParticipant participant = RoomParticipant.builder()
-                .roomId(room.getId())
-                .userId(userId)
-                .isHost(false)
-                .build();
-        participantRepository.save(participant);
+        transactionTemplate.executeWithoutResult(status -> {
+            // 已经在会议室中时不再预留席位
+            if (participantRepository.findByRoomIdAndUserIdAndLeftAtIsNull(room.getId(), userId).isEmpty()) {
+                // 原子预留席位并写入参与记录，人数已满时抛出异常
+                roomAdmissionService.admit(room, userId);
+            }
+        });
+        roomEventRelay.joinRoom(roomId, userId);
+        return response;
     }
 
     /**
@@ -161,7 +182,7 @@ public class RoomService {
      */
     @Transactional
     public void leaveRoom(String roomId, Long userId) {
-        Room room = roomRepository.findByRoomId(roomId)
+        Room room = roomCache.findByRoomId(roomId)
                 .orElseThrow(() -> new RuntimeException("会议室不存在"));
 
         RoomParticipant participant = participantRepository
@@ -170,6 +191,13 @@ public class RoomService {
 
         participant.setLeftAt(LocalDateTime.now());
         participantRepository.save(participant);
+
+        // 事务提交后再释放席位、移出消息频道，回滚时用户仍在会议室中
+        AfterCommit.run(() -> {
+            occupancyStore.remove(room.getId(), userId);
+            tokenRenewalService.cancel(roomId, userId);
+            roomEventRelay.leaveRoom(roomId, userId);
+        });
     }
 
     /**
@@ -200,6 +228,12 @@ public class RoomService {
         LocalDateTime now = LocalDateTime.now();
         participants.forEach(p -> p.setLeftAt(now));
         participantRepository.saveAll(participants);
+
+        // 事务提交后再清空在场人数、关闭消息频道，回滚时会议室仍可继续使用
+        AfterCommit.run(() -> {
+            occupancyStore.clear(room.getId());
+            roomEventRelay.closeRoom(roomId);
+        });
     }
 
     /**
@@ -211,13 +245,11 @@ public class RoomService {
      */
     @Transactional(readOnly = true)
     public List<ParticipantDto> getParticipants(String roomId) {
-        Room room = roomRepository.findByRoomId(roomId)
+        Room room = roomCache.findByRoomId(roomId)
                 .orElseThrow(() -> new RuntimeException("会议室不存在"));
 
-        List<RoomParticipant> participants = participantRepository
-                .findByRoomIdAndLeftAtIsNull(room.getId());
-
-        return participants.stream()
+        // 参与记录和用户资料在一次查询中取出，不逐个查询用户
+        return participantRepository.findRoster(room.getId()).stream()
                 .map(this::convertToParticipantDto)
                 .collect(Collectors.toList());
     }
@@ -225,7 +257,8 @@ public class RoomService {
     /**
      * 获取 Agora RTC Token
      *
-     * 用于客户端加入 Agora 频道进行音视频通话
+     * 用于客户端加入 Agora 频道进行音视频通话。不再校验准入票据：参与记录只会在通过密码或票据校验后写入，
+     * 离开、被移出或会议结束时失效，持有有效参与记录即说明已通过准入
      *
      * @param roomId 会议室 ID
      * @param userId 用户 ID
@@ -233,37 +266,79 @@ public class RoomService {
      * @throws RuntimeException 当会议室不存在或用户不在会议室中时
      */
     public AgoraTokenResponse getAgoraToken(String roomId, Long userId) {
-        Room room = roomRepository.findByRoomId(roomId)
+        Room room = roomCache.findByRoomId(roomId)
                 .orElseThrow(() -> new RuntimeException("会议室不存在"));
 
         // 验证用户是否在会议室中
         participantRepository.findByRoomIdAndUserIdAndLeftAtIsNull(room.getId(), userId)
                 .orElseThrow(() -> new RuntimeException("您不在该会议室中"));
 
-        String token = agoraService.generateRtcToken(roomId, userId.intValue());
+        AgoraService.RtcToken token = agoraService.generateRtcToken(roomId, userId.intValue());
+        // 过期前通过 WebSocket 主动推送新 Token
+        tokenRenewalService.track(roomId, userId, token.expiresAt());
+        return toTokenResponse(roomId, userId.intValue(), token);
+    }
+
+    /**
+     * 批量生成 Agora Token（仅主持人，用于网络研讨会等场景预先为参会者生成 Token）
+     *
+     * @param roomId 会议室 ID
+     * @param request 批量生成请求，包含用户 ID 列表和角色
+     * @param userId 当前用户 ID
+     * @return 与请求中用户顺序一致的 Token 列表
+     * @throws RuntimeException 当会议室不存在、已结束、不是主持人或数量超过上限时
+     */
+    @Transactional(readOnly = true)
+    public List<AgoraTokenResponse> getAgoraTokens(String roomId, BatchAgoraTokenRequest request, Long userId) {
+        Room room = roomCache.findByRoomId(roomId)
+                .orElseThrow(() -> new RuntimeException("会议室不存在"));
+
+        if (!room.getCreatorId().equals(userId)) {
+            throw new RuntimeException("只有主持人可以批量获取 Token");
+        }
+        if (room.getStatus() != RoomStatus.ACTIVE) {
+            throw new RuntimeException("会议室已结束");
+        }
+        if (request.getUids().size() > maxBatchTokens) {
+            throw new RuntimeException("单次最多生成 " + maxBatchTokens + " 个 Token");
+        }
+
+        RtcTokenBuilder.Role role;
+        if ("publisher".equalsIgnoreCase(request.getRole())) {
+            role = RtcTokenBuilder.Role.Role_Publisher;
+        } else if ("subscriber".equalsIgnoreCase(request.getRole())) {
+            role = RtcTokenBuilder.Role.Role_Subscriber;
+        } else {
+            // 未知角色不能默认为发布者，否则会给只应接收的用户发放发送权限
+            throw new RuntimeException("角色只能是 publisher 或 subscriber");
+        }
+        List<AgoraService.RtcToken> tokens = agoraService.generateRtcTokens(roomId, request.getUids(), role);
 
+        List<AgoraTokenResponse> responses = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            responses.add(toTokenResponse(roomId, request.getUids().get(i), tokens.get(i)));
+        }
+        return responses;
+    }
+
+    // 将 Token 转换为响应，有效期为缓存 Token 的剩余时间
+    private AgoraTokenResponse toTokenResponse(String roomId, Integer uid, AgoraService.RtcToken token) {
         return AgoraTokenResponse.builder()
-                .token(token)
+                .token(token.token())
                 .appId(agoraService.getAppId())
                 .channelName(roomId)
-                .uid(userId.intValue())
-                .expirationTime(3600)
+                .uid(uid)
+                .expirationTime(token.remainingSeconds())
+                .expiresAt(token.expiresAt())
                 .build();
     }
 
-    // 生成唯一的会议室 ID
-    private String generateRoomId() {
-        String roomId;
-        do {
-            roomId = UUID.randomUUID().toString().substring(0, 8);
-        } while (roomRepository.existsByRoomId(roomId));
-        return roomId;
-    }
-
     // 将会议室实体转换为 DTO
     private RoomDto convertToDto(Room room) {
-        long currentParticipants = participantRepository.countByRoomIdAndLeftAtIsNull(room.getId());
+        return convertToDto(room, occupancyStore.count(room.getId()));
+    }
 
+    private RoomDto convertToDto(Room room, long currentParticipants) {
         return RoomDto.builder()
                 .id(room.getId())
                 .roomId(room.getRoomId())
@@ -278,54 +353,31 @@ public class RoomService {
                 .build();
     }
 
-    // 将参与者实体转换为 DTO
-    private ParticipantDto convertToParticipantDto(RoomParticipant participant) {
-        User user = userRepository.findById(participant.getUserId())
-                .orElseThrow(() -> new RuntimeException("用户不存在"));
-
+    // 将参与者列表行转换为 DTO
+    private ParticipantDto convertToParticipantDto(RoomParticipantRepository.RosterEntry entry) {
         return ParticipantDto.builder()
-                .id(participant.getId())
-                .userId(user.getId())
-                .nickname(user.getNickname())
-                .avatarUrl(user.getAvatarUrl())
-                .isHost(participant.getIsHost())
-                .joinedAt(participant.getJoinedAt())
+                .id(entry.getId())
+                .userId(entry.getUserId())
+                .nickname(entry.getNickname())
+                .avatarUrl(entry.getAvatarUrl())
+                .isHost(entry.getIsHost())
+                .joinedAt(entry.getJoinedAt())
                 .build();
     }
 
     /**
      * 定时清理无人的会议室
      *
-     * 每 5 分钟执行一次，清理超过 2 小时且无人的会议室
+     * 每 5 分钟执行一次，清理超过 2 小时且无人的会议室，按块批量结束。
+     * 会议室按主键分片，每个节点只清理持有租约的分片
      */
     @Scheduled(fixedRate = 300000) // 5 分钟
-    @Transactional
     public void cleanupInactiveRooms() {
-        LocalDateTime threshold = LocalDateTime.now().minusHours(2);
-        List<Room> activeRooms = roomRepository.findByStatus(RoomStatus.ACTIVE);
-
-        int cleanedCount = 0;
-        for (Room room : activeRooms) {
-            // 检查是否超过 2 小时
-            if (room.getCreatedAt().isBefore(threshold)) {
-                // 检查是否还有人在会议室中
-                long activeParticipants = participantRepository
-                        .countByRoomIdAndLeftAtIsNull(room.getId());
-
-                if (activeParticipants == 0) {
-                    room.setStatus(RoomStatus.ENDED);
-                    room.setEndedAt(LocalDateTime.now());
-                    roomRepository.save(room);
-                    cleanedCount++;
-                    log.info("自动清理会议室: {} ({}), 创建时间: {}",
-                            room.getRoomName(), room.getRoomId(), room.getCreatedAt());
-                }
-            }
-        }
-
-        if (cleanedCount > 0) {
-            log.info("定时清理完成，共清理 {} 个无人会议室", cleanedCount);
-        }
+        LocalDateTime createdBefore = LocalDateTime.now().minusHours(2);
+        jobCoordinator.runSharded("room-cleanup", jobCoordinator.getShards(), (shard, shardCount) -> {
+            RoomCleanupReport report = roomCleanupService.endEmptyRooms("inactive", createdBefore, shardCount, shard);
+            return "结束 " + report.getRoomsEnded() + " 个会议室";
+        });
     }
 
     /**
@@ -335,30 +387,8 @@ public class RoomService {
      *
      * @return 清理的会议室数量
      */
-    @Transactional
     public int manualCleanupAllRooms() {
-        List<Room> activeRooms = roomRepository.findByStatus(RoomStatus.ACTIVE);
-        int cleanedCount = 0;
-        LocalDateTime now = LocalDateTime.now();
-
-        for (Room room : activeRooms) {
-            // 检查是否还有人在会议室中
-            long activeParticipants = participantRepository
-                    .countByRoomIdAndLeftAtIsNull(room.getId());
-
-            if (activeParticipants == 0) {
-                room.setStatus(RoomStatus.ENDED);
-                room.setEndedAt(now);
-                roomRepository.save(room);
-                cleanedCount++;
-                log.info("手动清理会议室: {} ({}), 创建时间: {}, 持续时间: {} 分钟",
-                        room.getRoomName(), room.getRoomId(), room.getCreatedAt(),
-                        java.time.Duration.between(room.getCreatedAt(), now).toMinutes());
-            }
-        }
-
-        log.info("手动清理完成，共清理 {} 个无人会议室", cleanedCount);
-        return cleanedCount;
+        return roomCleanupService.endEmptyRooms("empty", LocalDateTime.now()).getRoomsEnded();
     }
 
     /**
@@ -369,29 +399,11 @@ public class RoomService {
      *
      * @return 清理的会议室数量
      */
-    @Transactional
     public int forceCleanupAllRooms() {
-        List<Room> activeRooms = roomRepository.findByStatus(RoomStatus.ACTIVE);
-        LocalDateTime now = LocalDateTime.now();
-
-        for (Room room : activeRooms) {
-            // 强制结束会议室
-            room.setStatus(RoomStatus.ENDED);
-            room.setEndedAt(now);
-            roomRepository.save(room);
-
-            // 所有参与者离开
-            List<RoomParticipant> participants = participantRepository
-                    .findByRoomIdAndLeftAtIsNull(room.getId());
-            participants.forEach(p -> p.setLeftAt(now));
-            participantRepository.saveAll(participants);
-
-            log.warn("强制清理会议室: {} ({}), 参与者数量: {}",
-                    room.getRoomName(), room.getRoomId(), participants.size());
-        }
-
-        log.warn("强制清理完成，共清理 {} 个会议室", activeRooms.size());
-        return activeRooms.size();
+        RoomCleanupReport report = roomCleanupService.endAllRooms("force");
+        log.warn("强制清理完成，共清理 {} 个会议室，移出 {} 条参与记录",
+                report.getRoomsEnded(), report.getParticipantsReleased());
+        return report.getRoomsEnded();
     }
 }
 
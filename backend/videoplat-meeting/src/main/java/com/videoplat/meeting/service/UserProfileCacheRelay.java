@@ -0,0 +1,89 @@
+package com.videoplat.meeting.service;
+
+import com.videoplat.domain.cache.UserChangedEvent;
+import com.videoplat.domain.cache.UserProfileCache;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 用户资料缓存跨节点失效
+ *
+ * 领域模块没有 Redis 依赖，{@link UserProfileCache} 只失效本节点的条目。
+ * 集群模式下本组件在用户变更提交后（{@link UserChangedEvent}）通过 Redis 发布/订阅通知其他节点，
+ * 收到通知的节点失效对应条目；发布节点也会收到自己的通知，重复失效没有影响。
+ * 通知丢失时由缓存的写入过期时间兜底
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Slf4j
+@Component
+public class UserProfileCacheRelay implements MessageListener {
+
+    private static final String CHANNEL = "user:cache";
+
+    private final UserProfileCache userProfileCache;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    // 集群模式下才通过 Redis 通知其他节点
+    @Value("${videoplat.mode:cluster}")
+    private String mode;
+
+    public UserProfileCacheRelay(UserProfileCache userProfileCache,
+                                 StringRedisTemplate redisTemplate,
+                                 RedisMessageListenerContainer listenerContainer) {
+        this.userProfileCache = userProfileCache;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (isCluster()) {
+            listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        }
+    }
+
+    /**
+     * 用户变更事务提交后通知其他节点
+     */
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (!isCluster() || event.getUserId() == null) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(CHANNEL, event.getUserId().toString());
+        } catch (Exception e) {
+            log.warn("发布用户资料缓存通知失败，用户 {}", event.getUserId(), e);
+        }
+    }
+
+    /**
+     * 接收其他节点的通知
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            userProfileCache.invalidate(Long.parseLong(body));
+        } catch (NumberFormatException e) {
+            log.warn("忽略无法解析的用户资料缓存通知: {}", body);
+        }
+    }
+
+    private boolean isCluster() {
+        return "cluster".equals(mode);
+    }
+}
@@ -0,0 +1,273 @@
+package com.videoplat.meeting.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * 单个 WebSocket 会话的有界异步发送队列
+ *
+ * 调用方只负责入队，实际写入由专用线程池排空，慢客户端不会阻塞业务线程。
+ * 队列超过数量或字节上限时按 {@link OverflowPolicy} 处理；
+ * 单次发送超过时间上限的会话视为慢消费者并被关闭
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Slf4j
+public class OutboundMessageQueue {
+
+    /**
+     * 入队结果
+     */
+    public enum Result {
+        QUEUED,
+        DROPPED,
+        EVICTED
+    }
+
+    /**
+     * 会话被驱逐的原因
+     */
+    public enum EvictionReason {
+        // 发送队列溢出（CLOSE 策略）
+        OVERFLOW,
+        // 发送超时或发送失败
+        SLOW_CONSUMER
+    }
+
+    private final Long userId;
+    private final WebSocketSession session;
+    private final Executor executor;
+    private final int maxMessages;
+    private final int bufferSizeLimit;
+    private final long sendTimeLimitMillis;
+    private final OverflowPolicy overflowPolicy;
+    private final Consumer<EvictionReason> evictionListener;
+
+    private final Deque<Entry> queue = new ArrayDeque<>();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private final AtomicBoolean evicted = new AtomicBoolean(false);
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    // 以下字段受 this 锁保护
+    private int queuedBytes;
+
+    // 当前发送开始时间（毫秒），0 表示没有正在进行的发送
+    private volatile long sendStartedAt;
+
+    public OutboundMessageQueue(Long userId, WebSocketSession session, Executor executor,
+                                int maxMessages, int bufferSizeLimit, long sendTimeLimitMillis,
+                                OverflowPolicy overflowPolicy, Consumer<EvictionReason> evictionListener) {
+        this.userId = userId;
+        this.session = session;
+        this.executor = executor;
+        this.maxMessages = maxMessages;
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.sendTimeLimitMillis = sendTimeLimitMillis;
+        this.overflowPolicy = overflowPolicy;
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * 消息入队
+     *
+     * @param message 文本消息
+     * @param coalesceKey 合并键，为空表示该消息不可合并
+     * @return 入队结果，DROPPED 表示因溢出丢弃了消息，EVICTED 表示会话已被关闭
+     */
+    public Result enqueue(TextMessage message, String coalesceKey) {
+        if (evicted.get() || !session.isOpen()) {
+            return Result.EVICTED;
+        }
+
+        // 正在进行的发送超时，说明客户端已无法及时消费
+        long startedAt = sendStartedAt;
+        if (startedAt > 0 && System.currentTimeMillis() - startedAt > sendTimeLimitMillis) {
+            evict(EvictionReason.SLOW_CONSUMER, "发送超时");
+            return Result.EVICTED;
+        }
+
+        boolean dropped = false;
+        synchronized (this) {
+            int length = message.getPayloadLength();
+            if (coalesceKey != null && overflowPolicy == OverflowPolicy.COALESCE) {
+                dropped = removeByKey(coalesceKey);
+            }
+
+            queue.addLast(new Entry(message, coalesceKey, length));
+            queuedBytes += length;
+
+            while (queue.size() > maxMessages || queuedBytes > bufferSizeLimit) {
+                if (overflowPolicy == OverflowPolicy.CLOSE || queue.size() == 1) {
+                    break;
+                }
+                Entry oldest = queue.pollFirst();
+                queuedBytes -= oldest.length;
+                dropped = true;
+            }
+
+            if (overflowPolicy == OverflowPolicy.CLOSE
+                    && (queue.size() > maxMessages || queuedBytes > bufferSizeLimit)) {
+                queue.clear();
+                queuedBytes = 0;
+                dropped = false;
+                evicted.set(true);
+            }
+        }
+
+        if (evicted.get()) {
+            evict(EvictionReason.OVERFLOW, "发送队列溢出");
+            return Result.EVICTED;
+        }
+
+        scheduleDrain();
+        return dropped ? Result.DROPPED : Result.QUEUED;
+    }
+
+    /**
+     * 当前待发送消息数量
+     */
+    public synchronized int size() {
+        return queue.size();
+    }
+
+    /**
+     * 会话是否已因慢消费被关闭
+     */
+    public boolean isEvicted() {
+        return evicted.get();
+    }
+
+    public WebSocketSession getSession() {
+        return session;
+    }
+
+    /**
+     * 丢弃未发送的消息并关闭会话（同一用户建立新连接、旧会话被替换时调用），不计入驱逐指标
+     *
+     * @param status 关闭状态
+     */
+    public void close(CloseStatus status) {
+        evicted.set(true);
+        if (closed.compareAndSet(false, true)) {
+            closeSession(status);
+        }
+    }
+
+    // 移除队列中具有相同合并键的旧消息，调用方需持有 this 锁
+    private boolean removeByKey(String coalesceKey) {
+        boolean removed = false;
+        Iterator<Entry> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (coalesceKey.equals(entry.coalesceKey)) {
+                iterator.remove();
+                queuedBytes -= entry.length;
+                removed = true;
+            }
+        }
+        return removed;
+    }
+
+    // 确保同一会话同一时刻只有一个排空任务
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // 发送线程池队列已满：消息保留在本会话队列中，下次入队时重新提交
+                draining.set(false);
+                log.warn("用户 {} 的发送任务被线程池拒绝", userId);
+            }
+        }
+    }
+
+    // 在发送线程池中依次写出队列中的消息
+    private void drain() {
+        try {
+            while (session.isOpen() && !evicted.get()) {
+                Entry entry;
+                synchronized (this) {
+                    entry = queue.pollFirst();
+                    if (entry == null) {
+                        break;
+                    }
+                    queuedBytes -= entry.length;
+                }
+
+                sendStartedAt = System.currentTimeMillis();
+                try {
+                    session.sendMessage(entry.message);
+                } finally {
+                    sendStartedAt = 0;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("向用户 {} 发送消息失败: {}", userId, e.getMessage());
+            evict(EvictionReason.SLOW_CONSUMER, "发送失败");
+        } finally {
+            draining.set(false);
+        }
+
+        // 排空结束与新消息入队之间可能存在竞争，重新检查一次
+        boolean pending;
+        synchronized (this) {
+            pending = !queue.isEmpty();
+        }
+        if (pending && session.isOpen() && !evicted.get()) {
+            scheduleDrain();
+        }
+    }
+
+    // 关闭慢消费者会话，同一会话只处理一次
+    private void evict(EvictionReason reason, String description) {
+        evicted.set(true);
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        log.warn("用户 {} 的 WebSocket 会话被关闭，原因: {}", userId, description);
+        evictionListener.accept(reason);
+        closeSession(CloseStatus.SESSION_NOT_RELIABLE);
+    }
+
+    // 清空队列并关闭底层会话
+    private void closeSession(CloseStatus status) {
+        synchronized (this) {
+            queue.clear();
+            queuedBytes = 0;
+        }
+        try {
+            if (session.isOpen()) {
+                session.close(status);
+            }
+        } catch (Exception e) {
+            log.debug("关闭用户 {} 的 WebSocket 会话失败", userId, e);
+        }
+    }
+
+    /**
+     * 队列元素
+     */
+    private static final class Entry {
+        private final TextMessage message;
+        private final String coalesceKey;
+        private final int length;
+
+        private Entry(TextMessage message, String coalesceKey, int length) {
+            this.message = Objects.requireNonNull(message);
+            this.coalesceKey = coalesceKey;
+            this.length = length;
+        }
+    }
+}
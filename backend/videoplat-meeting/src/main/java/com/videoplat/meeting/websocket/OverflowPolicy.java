@@ -0,0 +1,27 @@
+package com.videoplat.meeting.websocket;
+
+/**
+ * WebSocket 发送队列溢出策略
+ *
+ * 当单个会话的待发送消息超过数量或字节上限时采取的处理方式
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+public enum OverflowPolicy {
+
+    /**
+     * 丢弃队列中最早的消息，保留最新消息
+     */
+    DROP_OLDEST,
+
+    /**
+     * 合并同一合并键的消息（只保留最新一条），仍然溢出时丢弃最早的消息
+     */
+    COALESCE,
+
+    /**
+     * 关闭会话，由客户端重连后重新同步
+     */
+    CLOSE
+}
@@ -0,0 +1,287 @@
+package com.videoplat.meeting.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.videoplat.meeting.dto.RoomEventEnvelope;
+import com.videoplat.meeting.dto.RoomEventEnvelope.RoomEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 会议室事件跨节点中继
+ *
+ * 会议室消息和成员变更先投递给本节点会话，再通过 Redis 发布/订阅转发给其他节点，
+ * 其他节点只投递给本地会话。会议室按哈希映射到固定数量的分片频道；
+ * 发布节点会丢弃自己发布的消息，避免重复投递。
+ * 同一分片上一批消息发布期间到达的事件会合并到下一个信封中批量发布
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Slf4j
+@Component
+public class RoomEventRelay implements MessageListener {
+
+    private static final String CHANNEL_PREFIX = "ws:fanout:";
+
+    private static final String KIND_MESSAGE = "MESSAGE";
+    private static final String KIND_JOIN = "JOIN";
+    private static final String KIND_LEAVE = "LEAVE";
+    private static final String KIND_CLOSE = "CLOSE";
+
+    private final WebSocketSessionRegistry sessionRegistry;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+
+    private final Counter publishedCounter;
+    private final Counter receivedCounter;
+    private final DistributionSummary batchSizeSummary;
+
+    // 是否启用跨节点分发，单节点部署可关闭
+    @Value("${app.websocket.cluster.enabled:true}")
+    private boolean enabled;
+
+    // 分片频道数量
+    @Value("${app.websocket.cluster.shards:16}")
+    private int shards;
+
+    // 单个信封最多包含的事件数
+    @Value("${app.websocket.cluster.max-batch-size:100}")
+    private int maxBatchSize;
+
+    // 节点 ID，未配置时启动时随机生成
+    @Value("${app.cluster.node-id:}")
+    private String nodeId;
+
+    private Queue<RoomEvent>[] pending;
+    private AtomicBoolean[] flushing;
+    private ThreadPoolTaskExecutor publishExecutor;
+
+    public RoomEventRelay(WebSocketSessionRegistry sessionRegistry,
+                          StringRedisTemplate stringRedisTemplate,
+                          RedisMessageListenerContainer listenerContainer,
+                          ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry) {
+        this.sessionRegistry = sessionRegistry;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.objectMapper = objectMapper;
+        this.publishedCounter = Counter.builder("websocket.cluster.published")
+                .description("发布到 Redis 的会议室事件数")
+                .register(meterRegistry);
+        this.receivedCounter = Counter.builder("websocket.cluster.received")
+                .description("从其他节点收到的会议室事件数")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("websocket.cluster.batch.size")
+                .description("每个信封包含的事件数")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    public void init() {
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = UUID.randomUUID().toString();
+        }
+        if (!enabled) {
+            log.info("跨节点 WebSocket 分发已关闭");
+            return;
+        }
+
+        pending = new Queue[shards];
+        flushing = new AtomicBoolean[shards];
+        List<Topic> topics = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            pending[i] = new ConcurrentLinkedQueue<>();
+            flushing[i] = new AtomicBoolean(false);
+            topics.add(new ChannelTopic(CHANNEL_PREFIX + i));
+        }
+
+        publishExecutor = new ThreadPoolTaskExecutor();
+        publishExecutor.setCorePoolSize(Math.min(shards, 4));
+        publishExecutor.setMaxPoolSize(Math.min(shards, 4));
+        publishExecutor.setThreadNamePrefix("ws-relay-");
+        publishExecutor.initialize();
+
+        listenerContainer.addMessageListener(this, topics);
+        log.info("跨节点 WebSocket 分发已启用，节点 ID: {}，分片数: {}", nodeId, shards);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (publishExecutor != null) {
+            publishExecutor.shutdown();
+        }
+    }
+
+    /**
+     * 获取本节点 ID
+     *
+     * @return 节点 ID
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 向会议室所有成员（包括其他节点上的会话）发送消息
+     *
+     * @param roomId 会议室 ID
+     * @param payload 消息内容，字符串直接发送，其他对象序列化为 JSON
+     */
+    public void sendToRoom(String roomId, Object payload) {
+        String json;
+        try {
+            json = payload instanceof String ? (String) payload : objectMapper.writeValueAsString(payload);
+        } catch (Exception e) {
+            log.error("序列化会议室 {} 的消息失败", roomId, e);
+            return;
+        }
+
+        sessionRegistry.sendToRoom(roomId, json);
+        publish(RoomEvent.builder().kind(KIND_MESSAGE).roomId(roomId).payload(json).build());
+    }
+
+    /**
+     * 将用户加入会议室消息频道（所有节点）
+     *
+     * @param roomId 会议室 ID
+     * @param userId 用户 ID
+     */
+    public void joinRoom(String roomId, Long userId) {
+        sessionRegistry.joinRoomChannel(roomId, userId);
+        publish(RoomEvent.builder().kind(KIND_JOIN).roomId(roomId).userId(userId).build());
+    }
+
+    /**
+     * 将用户移出会议室消息频道（所有节点）
+     *
+     * @param roomId 会议室 ID
+     * @param userId 用户 ID
+     */
+    public void leaveRoom(String roomId, Long userId) {
+        sessionRegistry.leaveRoomChannel(roomId, userId);
+        publish(RoomEvent.builder().kind(KIND_LEAVE).roomId(roomId).userId(userId).build());
+    }
+
+    /**
+     * 关闭会议室消息频道（所有节点）
+     *
+     * @param roomId 会议室 ID
+     */
+    public void closeRoom(String roomId) {
+        sessionRegistry.closeRoomChannel(roomId);
+        publish(RoomEvent.builder().kind(KIND_CLOSE).roomId(roomId).build());
+    }
+
+    /**
+     * 接收其他节点发布的事件，只投递给本地会话
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            RoomEventEnvelope envelope = objectMapper.readValue(
+                    new String(message.getBody(), StandardCharsets.UTF_8), RoomEventEnvelope.class);
+            if (nodeId.equals(envelope.getNodeId()) || envelope.getEvents() == null) {
+                return;
+            }
+
+            for (RoomEvent event : envelope.getEvents()) {
+                applyLocally(event);
+            }
+            receivedCounter.increment(envelope.getEvents().size());
+        } catch (Exception e) {
+            log.error("处理跨节点会议室事件失败", e);
+        }
+    }
+
+    // 将事件应用到本地会话注册表
+    private void applyLocally(RoomEvent event) {
+        switch (event.getKind()) {
+            case KIND_MESSAGE -> sessionRegistry.sendToRoom(event.getRoomId(), event.getPayload());
+            case KIND_JOIN -> sessionRegistry.joinRoomChannel(event.getRoomId(), event.getUserId());
+            case KIND_LEAVE -> sessionRegistry.leaveRoomChannel(event.getRoomId(), event.getUserId());
+            case KIND_CLOSE -> sessionRegistry.closeRoomChannel(event.getRoomId());
+            default -> log.warn("未知的会议室事件类型: {}", event.getKind());
+        }
+    }
+
+    // 将事件放入分片发布队列
+    private void publish(RoomEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        int shard = shardOf(event.getRoomId());
+        pending[shard].offer(event);
+        scheduleFlush(shard);
+    }
+
+    // 每个分片同一时刻只有一个发布任务，发布期间到达的事件进入下一批
+    private void scheduleFlush(int shard) {
+        if (flushing[shard].compareAndSet(false, true)) {
+            try {
+                publishExecutor.execute(() -> flush(shard));
+            } catch (Exception e) {
+                flushing[shard].set(false);
+                log.error("提交跨节点发布任务失败", e);
+            }
+        }
+    }
+
+    // 批量发布分片队列中的事件
+    private void flush(int shard) {
+        try {
+            Queue<RoomEvent> queue = pending[shard];
+            while (!queue.isEmpty()) {
+                List<RoomEvent> batch = new ArrayList<>();
+                RoomEvent event;
+                while (batch.size() < maxBatchSize && (event = queue.poll()) != null) {
+                    batch.add(event);
+                }
+
+                RoomEventEnvelope envelope = RoomEventEnvelope.builder()
+                        .nodeId(nodeId)
+                        .events(batch)
+                        .build();
+                stringRedisTemplate.convertAndSend(CHANNEL_PREFIX + shard, objectMapper.writeValueAsString(envelope));
+                publishedCounter.increment(batch.size());
+                batchSizeSummary.record(batch.size());
+            }
+        } catch (Exception e) {
+            log.error("发布跨节点会议室事件失败，分片: {}", shard, e);
+        } finally {
+            flushing[shard].set(false);
+        }
+
+        if (!pending[shard].isEmpty()) {
+            scheduleFlush(shard);
+        }
+    }
+
+    // 根据会议室 ID 计算分片
+    private int shardOf(String roomId) {
+        return Math.floorMod(roomId.hashCode(), shards);
+    }
+}
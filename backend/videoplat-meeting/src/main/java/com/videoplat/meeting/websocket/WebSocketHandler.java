@@ -1,6 +1,18 @@
 package com.videoplat.meeting.websocket;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.videoplat.common.constant.ErrorCode;
+import com.videoplat.common.exception.RateLimitedException;
+import com.videoplat.domain.cache.UserProfile;
+import com.videoplat.domain.cache.UserProfileCache;
+import com.videoplat.domain.repository.RoomParticipantRepository;
+import com.videoplat.meeting.dto.ChatMessageDTO;
+import com.videoplat.meeting.dto.ChatSyncResponse;
+import com.videoplat.meeting.dto.WsFrame;
+import com.videoplat.meeting.service.ChatService;
 import com.videoplat.meeting.service.OnlineStatusService;
+import com.videoplat.meeting.service.ParticipantAutoLeaveService;
+import com.videoplat.meeting.service.RoomCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -9,13 +21,14 @@ import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Optional;
 
 /**
  * WebSocket 处理器
  *
- * 负责处理 WebSocket 连接、消息和断开事件，管理用户在线状态
+ * 负责处理 WebSocket 连接、消息和断开事件，管理用户在线状态。
+ * 用户的最后一个连接断开后由 {@link ParticipantAutoLeaveService} 开始宽限期计时
+ * 会话和会议室成员索引由 {@link WebSocketSessionRegistry} 维护
  *
  * @author VideoPlat Team
  * @since 1.0
@@ -26,9 +39,13 @@ import java.util.concurrent.ConcurrentHashMap;
 public class WebSocketHandler extends TextWebSocketHandler {
 
     private final OnlineStatusService onlineStatusService;
-
-    // 存储所有活跃的 WebSocket 会话，key 为用户 ID
-    private final Map<Long, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    private final RoomCache roomCache;
+    private final RoomParticipantRepository participantRepository;
+    private final ObjectMapper objectMapper;
+    private final WebSocketSessionRegistry sessionRegistry;
+    private final ChatService chatService;
+    private final UserProfileCache userProfileCache;
+    private final ParticipantAutoLeaveService autoLeaveService;
 
     /**
      * WebSocket 连接建立后调用
@@ -39,8 +56,9 @@ public class WebSocketHandler extends TextWebSocketHandler {
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
         Long userId = getUserIdFromSession(session);
         if (userId != null) {
-            sessions.put(userId, session);
+            sessionRegistry.register(userId, session);
             onlineStatusService.setUserOnline(userId);
+            autoLeaveService.onConnected(userId);
             log.info("用户 {} 建立 WebSocket 连接", userId);
         } else {
             log.warn("无法从 WebSocket 会话中获取用户 ID");
@@ -51,17 +69,134 @@ public class WebSocketHandler extends TextWebSocketHandler {
     /**
      * 接收到 WebSocket 消息时调用
      *
+     * 客户端帧格式见 {@link WsFrame}：
+     * <ul>
+     *     <li>{"type":"chat","requestId":"r1","roomId":"xxx","content":"..."} 发送聊天消息，ack 携带分配的序号</li>
+     *     <li>{"type":"heartbeat","requestId":"r2"} 心跳，刷新在线状态</li>
+     *     <li>{"type":"subscribe","roomId":"xxx"} 订阅会议室消息（需已加入该会议室）</li>
+     *     <li>{"type":"unsubscribe","roomId":"xxx"} 取消订阅会议室消息</li>
+     *     <li>{"type":"resume","roomId":"xxx","since":N} 重连后订阅会议室并补齐序号 N 之后的聊天消息</li>
+     * </ul>
+     * 带 requestId 的请求处理成功后回复 ack，失败时回复 error；非 JSON 消息直接忽略
+     *
      * @param session WebSocket 会话
      * @param message 文本消息
      */
     @Override
     protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
         Long userId = getUserIdFromSession(session);
-        if (userId != null) {
-            log.debug("收到用户 {} 的消息: {}", userId, message.getPayload());
-            // 这里可以处理客户端发送的消息，例如心跳包
-            // 目前只用于维持连接和在线状态
+        if (userId == null) {
+            return;
+        }
+        log.debug("收到用户 {} 的消息: {}", userId, message.getPayload());
+
+        WsFrame frame;
+        try {
+            frame = objectMapper.readValue(message.getPayload(), WsFrame.class);
+        } catch (Exception e) {
+            // 非 JSON 消息（例如纯文本心跳包）直接忽略
+            return;
+        }
+        if (frame == null || frame.getType() == null) {
+            return;
+        }
+
+        String roomId = frame.getRoomId();
+        switch (frame.getType()) {
+            case WsFrame.TYPE_CHAT -> handleChat(userId, frame);
+            case WsFrame.TYPE_HEARTBEAT -> {
+                onlineStatusService.refreshUserOnlineStatus(userId);
+                ack(userId, frame, null);
+            }
+            case WsFrame.TYPE_SUBSCRIBE -> {
+                if (roomId != null && isActiveParticipant(roomId, userId)) {
+                    sessionRegistry.joinRoomChannel(roomId, userId);
+                    ack(userId, frame, null);
+                } else {
+                    log.warn("用户 {} 尝试订阅未加入的会议室 {}", userId, roomId);
+                    error(userId, frame, ErrorCode.NOT_IN_ROOM, "未加入该会议室");
+                }
+            }
+            case WsFrame.TYPE_UNSUBSCRIBE -> {
+                if (roomId != null) {
+                    sessionRegistry.leaveRoomChannel(roomId, userId);
+                }
+                ack(userId, frame, null);
+            }
+            case WsFrame.TYPE_RESUME -> {
+                if (roomId != null) {
+                    resume(userId, frame);
+                }
+            }
+            default -> {
+                // 未知类型的帧只在客户端等待回复时返回错误，兼容旧客户端的保活消息
+                if (frame.getRequestId() != null) {
+                    error(userId, frame, ErrorCode.INVALID_PARAMETER, "不支持的帧类型: " + frame.getType());
+                }
+            }
+        }
+    }
+
+    /**
+     * 处理聊天帧：只有已订阅该会议室的用户可以发送，成功后回复带序号的 ack
+     *
+     * @param userId 用户 ID
+     * @param frame 聊天帧
+     */
+    private void handleChat(Long userId, WsFrame frame) throws Exception {
+        String roomId = frame.getRoomId();
+        String content = frame.getContent();
+        if (roomId == null || content == null || content.trim().isEmpty()) {
+            error(userId, frame, ErrorCode.INVALID_PARAMETER, "消息内容不能为空");
+            return;
+        }
+        // 订阅时已校验参与者身份，这里只检查内存中的成员索引，不访问数据库
+        if (!sessionRegistry.isRoomMember(roomId, userId)) {
+            error(userId, frame, ErrorCode.NOT_IN_ROOM, "未加入该会议室");
+            return;
+        }
+
+        Optional<UserProfile> profile = userProfileCache.get(userId);
+        if (profile.isEmpty()) {
+            error(userId, frame, ErrorCode.USER_NOT_FOUND, "用户不存在");
+            return;
+        }
+
+        try {
+            ChatMessageDTO sent = chatService.sendMessage(roomId, userId, profile.get().getDisplayName(), content);
+            ack(userId, frame, sent.getId());
+        } catch (RateLimitedException e) {
+            error(userId, frame, e.getCode(), e.getMessage());
+        } catch (Exception e) {
+            error(userId, frame, ErrorCode.INTERNAL_ERROR, "发送消息失败");
+        }
+    }
+
+    /**
+     * 处理重连恢复：先订阅会议室，再发送缺失的聊天消息
+     *
+     * 订阅先于查询，两者之间到达的消息可能重复推送，客户端按序号去重
+     *
+     * @param userId 用户 ID
+     * @param frame 恢复帧
+     */
+    private void resume(Long userId, WsFrame frame) throws Exception {
+        String roomId = frame.getRoomId();
+        if (!isActiveParticipant(roomId, userId)) {
+            log.warn("用户 {} 尝试恢复未加入的会议室 {}", userId, roomId);
+            error(userId, frame, ErrorCode.NOT_IN_ROOM, "未加入该会议室");
+            return;
         }
+        sessionRegistry.joinRoomChannel(roomId, userId);
+
+        long since = frame.getSince() != null ? frame.getSince() : 0L;
+        ChatSyncResponse sync = chatService.syncMessages(roomId, since, ChatService.MAX_PAGE_SIZE);
+        send(userId, WsFrame.builder()
+                .type(WsFrame.TYPE_CHAT_SYNC)
+                .requestId(frame.getRequestId())
+                .roomId(roomId)
+                .data(sync)
+                .build());
     }
 
     /**
@@ -73,9 +208,9 @@ public class WebSocketHandler extends TextWebSocketHandler {
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
         Long userId = getUserIdFromSession(session);
-        if (userId != null) {
-            sessions.remove(userId);
+        if (userId != null && sessionRegistry.unregister(userId, session)) {
             onlineStatusService.setUserOffline(userId);
+            autoLeaveService.onDisconnected(userId);
             log.info("用户 {} 断开 WebSocket 连接，状态: {}", userId, status);
         }
     }
@@ -95,10 +230,52 @@ public class WebSocketHandler extends TextWebSocketHandler {
             session.close();
         }
 
-        if (userId != null) {
-            sessions.remove(userId);
+        if (userId != null && sessionRegistry.unregister(userId, session)) {
             onlineStatusService.setUserOffline(userId);
+            autoLeaveService.onDisconnected(userId);
+        }
+    }
+
+    /**
+     * 回复 ack 帧（请求未携带 requestId 时不回复）
+     *
+     * @param userId 用户 ID
+     * @param request 请求帧
+     * @param seq 分配的消息序号，可为空
+     */
+    private void ack(Long userId, WsFrame request, Long seq) throws Exception {
+        if (request.getRequestId() == null) {
+            return;
         }
+        send(userId, WsFrame.builder()
+                .type(WsFrame.TYPE_ACK)
+                .requestId(request.getRequestId())
+                .roomId(request.getRoomId())
+                .seq(seq)
+                .build());
+    }
+
+    /**
+     * 回复 error 帧
+     *
+     * @param userId 用户 ID
+     * @param request 请求帧
+     * @param code 错误代码
+     * @param message 错误描述
+     */
+    private void error(Long userId, WsFrame request, String code, String message) throws Exception {
+        send(userId, WsFrame.builder()
+                .type(WsFrame.TYPE_ERROR)
+                .requestId(request.getRequestId())
+                .roomId(request.getRoomId())
+                .code(code)
+                .message(message)
+                .build());
+    }
+
+    // 通过发送队列向用户推送帧
+    private void send(Long userId, WsFrame frame) throws Exception {
+        sessionRegistry.sendMessageToUser(userId, objectMapper.writeValueAsString(frame));
     }
 
     /**
@@ -121,37 +298,15 @@ public class WebSocketHandler extends TextWebSocketHandler {
     }
 
     /**
-     * 向指定用户发送消息
+     * 检查用户是否为会议室的当前参与者
      *
+     * @param roomId 会议室 ID
      * @param userId 用户 ID
-     * @param message 消息内容
+     * @return true 表示用户在会议室中
      */
-    public void sendMessageToUser(Long userId, String message) {
-        WebSocketSession session = sessions.get(userId);
-        if (session != null && session.isOpen()) {
-            try {
-                session.sendMessage(new TextMessage(message));
-                log.debug("向用户 {} 发送消息: {}", userId, message);
-            } catch (Exception e) {
-                log.error("向用户 {} 发送消息失败", userId, e);
-            }
-        }
-    }
-
-    /**
-     * 广播消息给所有在线用户
-     *
-     * @param message 消息内容
-     */
-    public void broadcastMessage(String message) {
-        sessions.forEach((userId, session) -> {
-            if (session.isOpen()) {
-                try {
-                    session.sendMessage(new TextMessage(message));
-                } catch (Exception e) {
-                    log.error("向用户 {} 广播消息失败", userId, e);
-                }
-            }
-        });
+    private boolean isActiveParticipant(String roomId, Long userId) {
+        return roomCache.findByRoomId(roomId)
+                .flatMap(room -> participantRepository.findByRoomIdAndUserIdAndLeftAtIsNull(room.getId(), userId))
+                .isPresent();
     }
 }
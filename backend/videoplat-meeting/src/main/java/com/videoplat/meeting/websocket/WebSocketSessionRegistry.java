@@ -0,0 +1,326 @@
+package com.videoplat.meeting.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.websocket.Session;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * WebSocket 会话注册表
+ *
+ * 维护用户到会话的映射、会议室到成员的索引，以及每个会话的异步发送队列。
+ * 业务服务通过本类向用户或会议室推送消息，发送过程不会阻塞调用线程
+ *
+ * @author VideoPlat Team
+ * @since 1.0
+ */
+@Slf4j
+@Component
+public class WebSocketSessionRegistry {
+
+    // Tomcat 阻塞发送超时属性，避免发送线程被失联客户端无限期占用
+    private static final String TOMCAT_BLOCKING_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    // 同一用户建立新连接时旧会话的关闭状态
+    private static final CloseStatus REPLACED_STATUS = CloseStatus.POLICY_VIOLATION.withReason("session replaced");
+
+    private final ObjectMapper objectMapper;
+    // 发送线程池，各会话的发送队列在此排空
+    private final ThreadPoolTaskExecutor sendExecutor;
+
+    // 所有活跃会话的发送队列，key 为用户 ID
+    private final Map<Long, OutboundMessageQueue> sessions = new ConcurrentHashMap<>();
+
+    // 会议室成员索引，key 为会议室 ID，value 为该会议室内的用户 ID 集合
+    private final Map<String, Set<Long>> roomMembers = new ConcurrentHashMap<>();
+
+    private final Counter droppedCounter;
+    private final Counter overflowEvictionCounter;
+    private final Counter slowConsumerEvictionCounter;
+
+    // 单个会话最多缓存的待发送消息数
+    @Value("${app.websocket.outbound.max-queued-messages:256}")
+    private int maxQueuedMessages;
+
+    // 单个会话最多缓存的待发送字节数
+    @Value("${app.websocket.outbound.buffer-size-limit:524288}")
+    private int bufferSizeLimit;
+
+    // 单条消息发送耗时上限（毫秒），超过即视为慢消费者
+    @Value("${app.websocket.outbound.send-time-limit:10000}")
+    private long sendTimeLimit;
+
+    // 发送队列溢出策略
+    @Value("${app.websocket.outbound.overflow-policy:DROP_OLDEST}")
+    private OverflowPolicy overflowPolicy;
+
+    public WebSocketSessionRegistry(ObjectMapper objectMapper,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.websocket.outbound.send-threads:8}") int sendThreads,
+                                    @Value("${app.websocket.outbound.send-queue-capacity:10000}") int sendQueueCapacity) {
+        this.objectMapper = objectMapper;
+
+        // 每个会话同一时刻最多提交一个排空任务，任务队列长度不超过会话数；
+        // 队列满时拒绝提交，消息留在会话自己的有界队列中，下次入队时重新提交
+        this.sendExecutor = new ThreadPoolTaskExecutor();
+        this.sendExecutor.setCorePoolSize(sendThreads);
+        this.sendExecutor.setMaxPoolSize(sendThreads);
+        this.sendExecutor.setQueueCapacity(sendQueueCapacity);
+        this.sendExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        this.sendExecutor.setThreadNamePrefix("ws-send-");
+        this.sendExecutor.initialize();
+
+        Gauge.builder("websocket.outbound.queue.depth", sessions,
+                        map -> map.values().stream().mapToInt(OutboundMessageQueue::size).sum())
+                .description("所有会话待发送消息总数")
+                .register(meterRegistry);
+        Gauge.builder("websocket.sessions", sessions, Map::size)
+                .description("当前节点的 WebSocket 会话数")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("websocket.outbound.dropped")
+                .description("因发送队列溢出而丢弃的消息数")
+                .register(meterRegistry);
+        this.overflowEvictionCounter = Counter.builder("websocket.outbound.evictions")
+                .tag("reason", "overflow")
+                .description("因发送队列溢出被关闭的会话数")
+                .register(meterRegistry);
+        this.slowConsumerEvictionCounter = Counter.builder("websocket.outbound.evictions")
+                .tag("reason", "slow-consumer")
+                .description("因发送超时或失败被关闭的会话数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 关闭发送线程池
+     */
+    @PreDestroy
+    public void shutdown() {
+        sendExecutor.shutdown();
+    }
+
+    /**
+     * 注册用户会话
+     *
+     * 同一用户已有会话时，旧会话的发送队列和连接会被关闭，避免旧连接和未发送的消息一直占用资源；
+     * 旧连接的关闭事件不会注销新会话（见 {@link #unregister}）
+     *
+     * @param userId 用户 ID
+     * @param session WebSocket 会话
+     */
+    public void register(Long userId, WebSocketSession session) {
+        applyBlockingSendTimeout(session);
+        OutboundMessageQueue queue = new OutboundMessageQueue(userId, session, sendExecutor,
+                maxQueuedMessages, bufferSizeLimit, sendTimeLimit, overflowPolicy,
+                this::countEviction);
+        OutboundMessageQueue previous = sessions.put(userId, queue);
+        if (previous != null && !previous.getSession().getId().equals(session.getId())) {
+            log.info("用户 {} 建立了新连接，关闭旧会话 {}", userId, previous.getSession().getId());
+            previous.close(REPLACED_STATUS);
+        }
+    }
+
+    /**
+     * 注销用户会话
+     *
+     * 只有当前登记的会话与传入会话一致时才移除，避免同一用户新连接被旧连接的关闭事件移除
+     *
+     * @param userId 用户 ID
+     * @param session WebSocket 会话
+     * @return true 表示该会话已被移除
+     */
+    public boolean unregister(Long userId, WebSocketSession session) {
+        OutboundMessageQueue queue = sessions.get(userId);
+        if (queue != null && queue.getSession().getId().equals(session.getId())) {
+            return sessions.remove(userId, queue);
+        }
+        return false;
+    }
+
+    /**
+     * 用户在本节点是否有活跃会话
+     *
+     * @param userId 用户 ID
+     * @return true 表示已连接
+     */
+    public boolean isConnected(Long userId) {
+        return sessions.containsKey(userId);
+    }
+
+    /**
+     * 在本节点有活跃会话的用户
+     *
+     * @return 用户 ID 集合（只读视图）
+     */
+    public Set<Long> getConnectedUserIds() {
+        return Collections.unmodifiableSet(sessions.keySet());
+    }
+
+    /**
+     * 将用户加入会议室消息频道
+     *
+     * @param roomId 会议室 ID
+     * @param userId 用户 ID
+     */
+    public void joinRoomChannel(String roomId, Long userId) {
+        roomMembers.computeIfAbsent(roomId, key -> ConcurrentHashMap.newKeySet()).add(userId);
+        log.debug("用户 {} 加入会议室 {} 的消息频道", userId, roomId);
+    }
+
+    /**
+     * 将用户移出会议室消息频道
+     *
+     * @param roomId 会议室 ID
+     * @param userId 用户 ID
+     */
+    public void leaveRoomChannel(String roomId, Long userId) {
+        roomMembers.computeIfPresent(roomId, (key, members) -> {
+            members.remove(userId);
+            return members.isEmpty() ? null : members;
+        });
+        log.debug("用户 {} 离开会议室 {} 的消息频道", userId, roomId);
+    }
+
+    /**
+     * 关闭会议室消息频道（会议结束时调用）
+     *
+     * @param roomId 会议室 ID
+     */
+    public void closeRoomChannel(String roomId) {
+        roomMembers.remove(roomId);
+        log.debug("关闭会议室 {} 的消息频道", roomId);
+    }
+
+    /**
+     * 检查用户是否已订阅会议室消息频道
+     *
+     * @param roomId 会议室 ID
+     * @param userId 用户 ID
+     * @return 是否已订阅
+     */
+    public boolean isRoomMember(String roomId, Long userId) {
+        Set<Long> members = roomMembers.get(roomId);
+        return members != null && members.contains(userId);
+    }
+
+    /**
+     * 向会议室内的所有在线成员发送消息
+     *
+     * 消息只序列化一次，然后放入该会议室成员的发送队列
+     *
+     * @param roomId 会议室 ID
+     * @param payload 消息内容，字符串直接发送，其他对象序列化为 JSON
+     */
+    public void sendToRoom(String roomId, Object payload) {
+        Set<Long> members = roomMembers.get(roomId);
+        if (members == null || members.isEmpty()) {
+            return;
+        }
+
+        TextMessage textMessage = toTextMessage(payload);
+        if (textMessage == null) {
+            return;
+        }
+
+        for (Long userId : members) {
+            enqueue(userId, textMessage, null);
+        }
+    }
+
+    /**
+     * 向指定用户发送消息
+     *
+     * @param userId 用户 ID
+     * @param message 消息内容
+     */
+    public void sendMessageToUser(Long userId, String message) {
+        sendMessageToUser(userId, message, null);
+    }
+
+    /**
+     * 向指定用户发送可合并的消息
+     *
+     * 发送队列采用 COALESCE 策略时，同一合并键的未发送消息只保留最新一条
+     *
+     * @param userId 用户 ID
+     * @param message 消息内容
+     * @param coalesceKey 合并键
+     */
+    public void sendMessageToUser(Long userId, String message, String coalesceKey) {
+        if (enqueue(userId, new TextMessage(message), coalesceKey)) {
+            log.debug("向用户 {} 发送消息: {}", userId, message);
+        }
+    }
+
+    /**
+     * 广播消息给所有在线用户
+     *
+     * @param message 消息内容
+     */
+    public void broadcastMessage(String message) {
+        TextMessage textMessage = new TextMessage(message);
+        sessions.keySet().forEach(userId -> enqueue(userId, textMessage, null));
+    }
+
+    // 将消息放入用户的发送队列
+    private boolean enqueue(Long userId, TextMessage message, String coalesceKey) {
+        OutboundMessageQueue queue = sessions.get(userId);
+        if (queue == null) {
+            return false;
+        }
+
+        OutboundMessageQueue.Result result = queue.enqueue(message, coalesceKey);
+        if (result == OutboundMessageQueue.Result.DROPPED) {
+            droppedCounter.increment();
+        } else if (result == OutboundMessageQueue.Result.EVICTED) {
+            // 会话关闭后由 WebSocketHandler.afterConnectionClosed 负责注销
+            return false;
+        }
+        return true;
+    }
+
+    // 为底层 Tomcat 会话设置阻塞发送超时
+    private void applyBlockingSendTimeout(WebSocketSession session) {
+        if (session instanceof NativeWebSocketSession nativeSession) {
+            Session standardSession = nativeSession.getNativeSession(Session.class);
+            if (standardSession != null) {
+                standardSession.getUserProperties().put(TOMCAT_BLOCKING_SEND_TIMEOUT, sendTimeLimit);
+            }
+        }
+    }
+
+    // 将消息对象序列化为文本消息
+    private TextMessage toTextMessage(Object payload) {
+        try {
+            String json = payload instanceof String ? (String) payload : objectMapper.writeValueAsString(payload);
+            return new TextMessage(json);
+        } catch (Exception e) {
+            log.error("序列化 WebSocket 消息失败", e);
+            return null;
+        }
+    }
+
+    // 记录会话驱逐指标
+    private void countEviction(OutboundMessageQueue.EvictionReason reason) {
+        if (reason == OutboundMessageQueue.EvictionReason.OVERFLOW) {
+            overflowEvictionCounter.increment();
+        } else {
+            slowConsumerEvictionCounter.increment();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.videoplat.meeting.benchmark;
+
+import com.videoplat.meeting.service.AgoraService;
+import io.agora.media.RtcTokenBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agora Token 批量生成吞吐基准测试
+ *
+ * 结果单位为每秒批次数，乘以 batchSize 即每秒生成的 Token 数。
+ * cold 系列每次使用新的用户 ID，全部未命中缓存，衡量 HMAC 签名本身；cached 系列重复请求同一批用户，衡量缓存命中路径；
+ * singleCalls 逐个调用单个生成接口，与 batchCold 对比整批复用 TokenBuilder 的收益。
+ * 运行方式同 {@link ChatHistoryStoreBenchmark}，将类名替换为 AgoraTokenBenchmark，不需要 Redis
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AgoraTokenBenchmark {
+
+    private static final String CHANNEL = "bench-room";
+
+    @Param({"1", "100", "500"})
+    public int batchSize;
+
+    private AgoraService agoraService;
+    private List<Integer> cachedUids;
+    private int nextUid;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        agoraService = new AgoraService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(agoraService, "appId", "0123456789abcdef0123456789abcdef");
+        ReflectionTestUtils.setField(agoraService, "appCertificate", "fedcba9876543210fedcba9876543210");
+        ReflectionTestUtils.setField(agoraService, "tokenExpiration", 3600);
+        ReflectionTestUtils.setField(agoraService, "refreshMargin", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(agoraService, "cacheMaxSize", 100_000L);
+        agoraService.init();
+
+        cachedUids = uids(batchSize);
+        agoraService.generateRtcTokens(CHANNEL, cachedUids, RtcTokenBuilder.Role.Role_Publisher);
+    }
+
+    @Benchmark
+    public List<AgoraService.RtcToken> batchCold() {
+        return agoraService.generateRtcTokens(CHANNEL, uids(batchSize), RtcTokenBuilder.Role.Role_Publisher);
+    }
+
+    @Benchmark
+    public List<AgoraService.RtcToken> batchCached() {
+        return agoraService.generateRtcTokens(CHANNEL, cachedUids, RtcTokenBuilder.Role.Role_Publisher);
+    }
+
+    @Benchmark
+    public List<AgoraService.RtcToken> singleCalls() {
+        List<AgoraService.RtcToken> tokens = new ArrayList<>(batchSize);
+        for (Integer uid : uids(batchSize)) {
+            tokens.add(agoraService.generateRtcToken(CHANNEL, uid, RtcTokenBuilder.Role.Role_Publisher));
+        }
+        return tokens;
+    }
+
+    // 分配一批未使用过的用户 ID
+    private List<Integer> uids(int count) {
+        List<Integer> uids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            uids.add(++nextUid);
+        }
+        return uids;
+    }
+}
@@ -0,0 +1,37 @@
+package com.videoplat.meeting.benchmark;
+
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * 基准测试使用的 Redis 连接
+ *
+ * 地址通过 -Dbench.redis.host / -Dbench.redis.port 指定，默认 localhost:6379，
+ * 例如先执行 docker run --rm -p 6379:6379 redis:7-alpine。基准测试会清空该 Redis 中的数据
+ */
+final class BenchmarkRedis {
+
+    private final LettuceConnectionFactory connectionFactory;
+    private final StringRedisTemplate redisTemplate;
+
+    BenchmarkRedis() {
+        connectionFactory = new LettuceConnectionFactory(
+                System.getProperty("bench.redis.host", "localhost"),
+                Integer.getInteger("bench.redis.port", 6379));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.execute(connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        }, true);
+    }
+
+    StringRedisTemplate template() {
+        return redisTemplate;
+    }
+
+    void close() {
+        connectionFactory.destroy();
+    }
+}
@@ -0,0 +1,21 @@
+package com.videoplat.meeting.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 基准测试公共设置
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * 只输出警告以上的日志：没有 Spring 日志配置时 logback 默认输出 DEBUG，会掩盖被测代码本身的开销
+     */
+    static void quietLogging() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+}
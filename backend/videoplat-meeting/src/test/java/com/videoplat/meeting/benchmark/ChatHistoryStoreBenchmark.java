@@ -0,0 +1,96 @@
+package com.videoplat.meeting.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.videoplat.meeting.dto.ChatMessageDTO;
+import com.videoplat.meeting.service.ChatArchiveService;
+import com.videoplat.meeting.service.ChatHistoryStore;
+import com.videoplat.meeting.service.InMemoryChatHistoryStore;
+import com.videoplat.meeting.service.RedisChatSequences;
+import com.videoplat.meeting.service.RedisStreamChatHistoryStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * 聊天历史存储基准测试：进程内环形缓冲区与 Redis Streams 的写入和最新一页查询
+ *
+ * 运行方式（需要可访问的 Redis，见 {@link BenchmarkRedis}）：
+ * mvn -pl videoplat-meeting -am test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main ChatHistoryStoreBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChatHistoryStoreBenchmark {
+
+    private static final String ROOM_ID = "bench-room";
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"memory", "redis"})
+    public String store;
+
+    private ChatHistoryStore chatHistoryStore;
+    private BenchmarkRedis redis;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        if ("redis".equals(store)) {
+            redis = new BenchmarkRedis();
+            RedisChatSequences sequences = new RedisChatSequences(redis.template(), mock(ChatArchiveService.class));
+            chatHistoryStore = new RedisStreamChatHistoryStore(redis.template(), objectMapper, sequences);
+        } else {
+            chatHistoryStore = new InMemoryChatHistoryStore(mock(ChatArchiveService.class), objectMapper);
+        }
+        // 先写满一页，查询基准读取的是完整的最新一页
+        for (int i = 0; i < PAGE_SIZE * 2; i++) {
+            append();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (redis != null) {
+            redis.close();
+        }
+    }
+
+    @Benchmark
+    public long append() {
+        long seq = chatHistoryStore.nextSequence(ROOM_ID);
+        chatHistoryStore.appendAll(ROOM_ID, List.of(ChatMessageDTO.builder()
+                .id(seq)
+                .roomId(ROOM_ID)
+                .userId(1L)
+                .username("bench")
+                .content("message " + seq)
+                .type("text")
+                .timestamp(LocalDateTime.now())
+                .build()));
+        return seq;
+    }
+
+    @Benchmark
+    public List<ChatMessageDTO> latestPage() {
+        return chatHistoryStore.query(ROOM_ID, null, null, PAGE_SIZE);
+    }
+}
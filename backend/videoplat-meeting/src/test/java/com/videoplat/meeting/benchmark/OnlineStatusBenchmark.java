@@ -0,0 +1,102 @@
+package com.videoplat.meeting.benchmark;
+
+import com.videoplat.meeting.service.InMemoryOnlineStatusService;
+import com.videoplat.meeting.service.JobCoordinator;
+import com.videoplat.meeting.service.OnlineStatusService;
+import com.videoplat.meeting.service.PresenceNearCache;
+import com.videoplat.meeting.service.RedisOnlineStatusService;
+import com.videoplat.meeting.websocket.WebSocketSessionRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 在线状态基准测试：进程内映射加时间轮与 Redis 有序集合的上线和在线查询
+ *
+ * Redis 实现的近缓存在这里被绕过，在线查询每次都访问 Redis，对应近缓存未命中时的开销。
+ * 运行方式同 {@link ChatHistoryStoreBenchmark}，将类名替换为 OnlineStatusBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OnlineStatusBenchmark {
+
+    private static final int USERS = 10_000;
+
+    @Param({"memory", "redis"})
+    public String store;
+
+    private OnlineStatusService onlineStatusService;
+    private InMemoryOnlineStatusService inMemoryService;
+    private BenchmarkRedis redis;
+    private long next;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        if ("redis".equals(store)) {
+            redis = new BenchmarkRedis();
+            PresenceNearCache nearCache = mock(PresenceNearCache.class);
+            when(nearCache.getLastSeen(anyLong(), any())).thenAnswer(invocation ->
+                    ((Function<Long, Double>) invocation.getArgument(1)).apply(invocation.getArgument(0)));
+            onlineStatusService = new RedisOnlineStatusService(redis.template(), nearCache,
+                    mock(WebSocketSessionRegistry.class), mock(JobCoordinator.class), new SimpleMeterRegistry());
+        } else {
+            inMemoryService = new InMemoryOnlineStatusService();
+            inMemoryService.start();
+            onlineStatusService = inMemoryService;
+        }
+        ReflectionTestUtils.setField(onlineStatusService, "livenessWindow", Duration.ofMinutes(5));
+        for (long userId = 1; userId <= USERS; userId++) {
+            onlineStatusService.setUserOnline(userId);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (inMemoryService != null) {
+            inMemoryService.stop();
+        }
+        if (redis != null) {
+            redis.close();
+        }
+    }
+
+    @Benchmark
+    public void setOnline() {
+        onlineStatusService.setUserOnline(nextUser());
+    }
+
+    @Benchmark
+    public boolean isOnline() {
+        return onlineStatusService.isUserOnline(nextUser());
+    }
+
+    private long nextUser() {
+        return next++ % USERS + 1;
+    }
+}
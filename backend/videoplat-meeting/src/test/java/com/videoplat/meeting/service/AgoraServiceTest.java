@@ -0,0 +1,75 @@
+package com.videoplat.meeting.service;
+
+import io.agora.media.RtcTokenBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Agora Token 生成测试：批量生成与单个生成共用缓存，结果顺序与请求一致，录制用的新 Token 不经过缓存
+ */
+class AgoraServiceTest {
+
+    private static final String CHANNEL = "room-1";
+
+    private AgoraService agoraService;
+
+    @BeforeEach
+    void setUp() {
+        agoraService = new AgoraService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(agoraService, "appId", "0123456789abcdef0123456789abcdef");
+        ReflectionTestUtils.setField(agoraService, "appCertificate", "fedcba9876543210fedcba9876543210");
+        ReflectionTestUtils.setField(agoraService, "tokenExpiration", 3600);
+        ReflectionTestUtils.setField(agoraService, "refreshMargin", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(agoraService, "cacheMaxSize", 1000L);
+        agoraService.init();
+    }
+
+    @Test
+    void batchReturnsOneTokenPerUidInRequestOrder() {
+        List<Integer> uids = IntStream.rangeClosed(1, 500).boxed().toList();
+
+        List<AgoraService.RtcToken> tokens = agoraService.generateRtcTokens(CHANNEL, uids,
+                RtcTokenBuilder.Role.Role_Publisher);
+
+        assertThat(tokens).hasSize(uids.size());
+        assertThat(tokens).extracting(AgoraService.RtcToken::token).doesNotContainNull().doesNotHaveDuplicates();
+        for (int i = 0; i < uids.size(); i++) {
+            assertThat(tokens.get(i).token())
+                    .isEqualTo(agoraService.generateRtcToken(CHANNEL, uids.get(i)).token());
+        }
+    }
+
+    @Test
+    void repeatedBatchIsServedFromCache() {
+        List<Integer> uids = List.of(7, 8, 9);
+
+        List<AgoraService.RtcToken> first = agoraService.generateRtcTokens(CHANNEL, uids,
+                RtcTokenBuilder.Role.Role_Subscriber);
+        List<AgoraService.RtcToken> second = agoraService.generateRtcTokens(CHANNEL, uids,
+                RtcTokenBuilder.Role.Role_Subscriber);
+
+        assertThat(second).isEqualTo(first);
+        // 角色不同的 Token 分别缓存
+        assertThat(agoraService.generateRtcToken(CHANNEL, 7).token()).isNotEqualTo(first.get(0).token());
+    }
+
+    @Test
+    void freshTokenBypassesCache() {
+        AgoraService.RtcToken cached = agoraService.generateRtcToken(CHANNEL, 7);
+
+        AgoraService.RtcToken fresh = agoraService.generateFreshRtcToken(CHANNEL, 7);
+
+        assertThat(fresh.token()).isNotEqualTo(cached.token());
+        assertThat(fresh.expiresAt()).isGreaterThanOrEqualTo(cached.expiresAt());
+        // 新 Token 不写入缓存
+        assertThat(agoraService.generateRtcToken(CHANNEL, 7)).isEqualTo(cached);
+    }
+}
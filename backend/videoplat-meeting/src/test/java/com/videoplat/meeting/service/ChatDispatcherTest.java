@@ -0,0 +1,140 @@
+package com.videoplat.meeting.service;
+
+import com.videoplat.meeting.dto.ChatMessageDTO;
+import com.videoplat.meeting.websocket.RoomEventRelay;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 聊天分发管道测试：同一会议室的持久化和推送按序号递增
+ */
+class ChatDispatcherTest {
+
+    private static final String ROOM_ID = "room-1";
+
+    private final List<Long> persisted = Collections.synchronizedList(new ArrayList<>());
+    private final List<Long> delivered = Collections.synchronizedList(new ArrayList<>());
+
+    private ChatDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        ChatHistoryStore store = mock(ChatHistoryStore.class);
+        doAnswer(invocation -> {
+            List<ChatMessageDTO> messages = invocation.getArgument(1);
+            messages.forEach(message -> persisted.add(message.getId()));
+            return null;
+        }).when(store).appendAll(anyString(), anyList());
+
+        RoomEventRelay relay = mock(RoomEventRelay.class);
+        doAnswer(invocation -> {
+            delivered.add(((ChatMessageDTO) invocation.getArgument(1)).getId());
+            return null;
+        }).when(relay).sendToRoom(anyString(), any());
+
+        dispatcher = new ChatDispatcher(store, mock(ChatArchiveService.class), relay, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(dispatcher, "shardCount", 2);
+        ReflectionTestUtils.setField(dispatcher, "ringCapacity", 4096);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 16);
+        ReflectionTestUtils.setField(dispatcher, "reorderWindowMillis", 500L);
+        dispatcher.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.stop();
+    }
+
+    @Test
+    void interleavedProducersArePersistedAndDeliveredInSequenceOrder() throws Exception {
+        int perProducer = 1000;
+        AtomicLong sequence = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+
+        Runnable producer = () -> {
+            try {
+                start.await();
+                for (int i = 0; i < perProducer; i++) {
+                    // 与 ChatService 相同：先分配序号，再入队；两者之间让出 CPU，制造入队顺序与序号顺序不一致
+                    long seq = sequence.incrementAndGet();
+                    if (ThreadLocalRandom.current().nextInt(4) == 0) {
+                        Thread.sleep(0, ThreadLocalRandom.current().nextInt(200_000));
+                    } else {
+                        Thread.yield();
+                    }
+                    while (!dispatcher.submit(message(seq))) {
+                        Thread.onSpinWait();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        Thread first = new Thread(producer, "producer-1");
+        Thread second = new Thread(producer, "producer-2");
+        first.start();
+        second.start();
+        start.countDown();
+        first.join();
+        second.join();
+
+        List<Long> expected = LongStream.rangeClosed(1, perProducer * 2L).boxed().toList();
+        awaitSize(delivered, expected.size());
+
+        assertThat(persisted).containsExactlyElementsOf(expected);
+        assertThat(delivered).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void gapIsSkippedAfterReorderWindow() throws Exception {
+        // 序号 1 在其他节点上分配，本节点永远收不到
+        dispatcher.submit(message(3));
+        dispatcher.submit(message(2));
+
+        awaitSize(delivered, 2);
+        assertThat(persisted).containsExactly(2L, 3L);
+
+        // 缺口被跳过后才到达的消息立即处理，由存储负责按序号合并
+        dispatcher.submit(message(1));
+        awaitSize(delivered, 3);
+        assertThat(delivered).containsExactly(2L, 3L, 1L);
+    }
+
+    private static ChatMessageDTO message(long seq) {
+        return ChatMessageDTO.builder()
+                .id(seq)
+                .roomId(ROOM_ID)
+                .userId(1L)
+                .username("user")
+                .content("message " + seq)
+                .type("text")
+                .build();
+    }
+
+    private static void awaitSize(List<Long> list, int size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (list.size() < size && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(list).hasSize(size);
+    }
+}
@@ -0,0 +1,21 @@
+package com.videoplat.meeting.service;
+
+import org.junit.jupiter.api.BeforeEach;
+
+/**
+ * 进程内在场人数存储的并发预留测试
+ */
+class InMemoryRoomOccupancyStoreTest extends RoomOccupancyStoreConcurrencyTest {
+
+    private InMemoryRoomOccupancyStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryRoomOccupancyStore();
+    }
+
+    @Override
+    protected RoomOccupancyStore store() {
+        return store;
+    }
+}
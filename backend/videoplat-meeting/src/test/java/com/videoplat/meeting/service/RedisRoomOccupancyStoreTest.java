@@ -0,0 +1,52 @@
+package com.videoplat.meeting.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Redis 在场人数存储的并发预留测试：席位预留 Lua 脚本在真实 Redis 上执行，没有 Docker 时跳过
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RedisRoomOccupancyStoreTest extends RoomOccupancyStoreConcurrencyTest {
+
+    @Container
+    private static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private RedisRoomOccupancyStore store;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(REDIS.getHost(), REDIS.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.execute(connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        }, true);
+        store = new RedisRoomOccupancyStore(redisTemplate);
+    }
+
+    @Override
+    protected RoomOccupancyStore store() {
+        return store;
+    }
+}
@@ -0,0 +1,201 @@
+package com.videoplat.meeting.service;
+
+import com.videoplat.domain.entity.Room;
+import com.videoplat.domain.repository.RoomParticipantRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 会议室席位预留的并发测试：并行加入时在场人数不超过上限，写入参与记录失败时席位被释放，
+ * 各实现共用同一组用例
+ */
+abstract class RoomOccupancyStoreConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int CAPACITY = 10;
+
+    /**
+     * 被测存储，每个用例使用未被其他用例占用的会议室主键
+     */
+    protected abstract RoomOccupancyStore store();
+
+    @Test
+    void parallelJoinsNeverExceedCapacity() throws Exception {
+        long roomId = 1L;
+        List<RoomOccupancyStore.Reservation> results = runConcurrently(200,
+                userId -> store().reserve(roomId, userId, CAPACITY));
+
+        assertThat(results).filteredOn(result -> result == RoomOccupancyStore.Reservation.RESERVED)
+                .hasSize(CAPACITY);
+        assertThat(results).filteredOn(result -> result == RoomOccupancyStore.Reservation.FULL)
+                .hasSize(200 - CAPACITY);
+        assertThat(store().count(roomId)).isEqualTo(CAPACITY);
+        assertThat(store().members(roomId)).hasSize(CAPACITY);
+    }
+
+    @Test
+    void parallelJoinsOfSameUserTakeOneSeat() throws Exception {
+        long roomId = 2L;
+        List<RoomOccupancyStore.Reservation> results = runConcurrently(100,
+                attempt -> store().reserve(roomId, 42L, CAPACITY));
+
+        assertThat(results).filteredOn(result -> result == RoomOccupancyStore.Reservation.RESERVED)
+                .hasSize(1);
+        assertThat(results).filteredOn(result -> result == RoomOccupancyStore.Reservation.ALREADY_PRESENT)
+                .hasSize(99);
+        assertThat(store().count(roomId)).isEqualTo(1);
+    }
+
+    @Test
+    void joinsAndLeavesUnderContentionStayWithinCapacity() throws Exception {
+        long roomId = 3L;
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong maxObserved = new AtomicLong();
+        AtomicInteger admitted = new AtomicInteger();
+
+        // 在加入和离开交替进行时持续采样人数
+        Thread sampler = new Thread(() -> {
+            while (running.get()) {
+                maxObserved.accumulateAndGet(store().count(roomId), Math::max);
+            }
+        }, "occupancy-sampler");
+        sampler.start();
+
+        runConcurrently(THREADS, worker -> {
+            long userId = 1000L + worker;
+            for (int i = 0; i < 50; i++) {
+                if (store().reserve(roomId, userId, CAPACITY) == RoomOccupancyStore.Reservation.RESERVED) {
+                    admitted.incrementAndGet();
+                    store().remove(roomId, userId);
+                }
+            }
+            return null;
+        });
+        running.set(false);
+        sampler.join();
+
+        assertThat(admitted.get()).isPositive();
+        assertThat(maxObserved.get()).isLessThanOrEqualTo(CAPACITY);
+        assertThat(store().count(roomId)).isZero();
+    }
+
+    @Test
+    void failedAdmissionsReleaseTheirSeats() throws Exception {
+        long roomId = 4L;
+        int joins = 5000;
+        int capacity = 100;
+        Room room = Room.builder().id(roomId).roomId("admission").maxParticipants(capacity).build();
+
+        // 参与记录写入：用户 ID 为 3 的倍数时失败（模拟数据库异常），其余记录下来作为数据库中的参与者
+        Set<Long> inserted = ConcurrentHashMap.newKeySet();
+        RoomParticipantRepository participantRepository = mock(RoomParticipantRepository.class);
+        when(participantRepository.insertIfNotActive(anyLong(), anyLong(), any())).thenAnswer(invocation -> {
+            Long userId = invocation.getArgument(1);
+            if (userId % 3 == 0) {
+                throw new IllegalStateException("模拟写入失败");
+            }
+            return inserted.add(userId) ? 1 : 0;
+        });
+        RoomAdmissionService admissionService =
+                new RoomAdmissionService(store(), participantRepository, new SimpleMeterRegistry());
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new StubTransactionManager());
+
+        AtomicInteger admitted = new AtomicInteger();
+        AtomicInteger full = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        runConcurrently(joins, userId -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> admissionService.admit(room, userId));
+                admitted.incrementAndGet();
+            } catch (IllegalStateException e) {
+                failed.incrementAndGet();
+            } catch (RuntimeException e) {
+                assertThat(e).hasMessage("会议室人数已满");
+                full.incrementAndGet();
+            }
+            return null;
+        });
+
+        assertThat(admitted.get() + full.get() + failed.get()).isEqualTo(joins);
+        assertThat(failed.get()).isPositive();
+        assertThat(admitted.get()).isPositive().isLessThanOrEqualTo(capacity);
+        // 失败的加入都已释放席位：存储中的成员与写入成功的参与记录完全一致
+        assertThat(store().members(roomId)).containsExactlyInAnyOrderElementsOf(inserted);
+        assertThat(store().count(roomId)).isEqualTo(admitted.get());
+    }
+
+    // 在固定线程池中并发执行 tasks 次，所有任务同时开始，结果按任务序号排列
+    private static <T> List<T> runConcurrently(int tasks, Task<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>(tasks);
+            for (int i = 0; i < tasks; i++) {
+                long id = i + 1;
+                Callable<T> callable = () -> {
+                    start.await();
+                    return task.run(id);
+                };
+                futures.add(executor.submit(callable));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>(tasks);
+            for (Future<T> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Task<T> {
+        T run(long id) throws Exception;
+    }
+
+    // 不连接数据库的事务管理器，只用于触发事务同步回调（提交、回滚后释放席位）
+    private static class StubTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
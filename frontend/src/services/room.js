@@ -23,14 +23,24 @@ export const getRoomInfo = async (roomId) => {
   return apiClient.get(`/rooms/${roomId}`)
 }
 
+// 会议室准入票据在 sessionStorage 中的键
+const admissionTicketKey = (roomId) => `room-admission-ticket:${roomId}`
+
 /**
  * 加入会议室
  *
+ * 有密码的会议室首次加入后返回准入票据，重新加入时自动携带，服务端不再重复校验密码
+ *
  * @param {string} roomId - 会议室 ID
  * @param {string|null} password - 会议室密码（如需要）
  */
 export const joinRoom = async (roomId, password = null) => {
-  return apiClient.post(`/rooms/${roomId}/join`, { password })
+  const admissionTicket = sessionStorage.getItem(admissionTicketKey(roomId))
+  const result = await apiClient.post(`/rooms/${roomId}/join`, { password, admissionTicket })
+  if (result?.admissionTicket) {
+    sessionStorage.setItem(admissionTicketKey(roomId), result.admissionTicket)
+  }
+  return result
 }
 
 /**